@@ -2,23 +2,115 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import com.opencsv.CSVReader;
 import java.net.URISyntaxException;
 
 public class AirbnbDataLoader {
- 
+    // Whether the csv file is parsed in parallel by a ListingCsvParser rather than by a CSVReader.
+    private boolean parallel;
+
+    /**
+     * Constructor for objects of class AirbnbDataLoader, reading the csv file on one thread with a CSVReader.
+     */
+    public AirbnbDataLoader() {
+        this(false);
+    }
+
+    /**
+     * Constructor for objects of class AirbnbDataLoader.
+     * @param parallel whether to memory-map the csv file and parse it in parallel with a ListingCsvParser
+     */
+    public AirbnbDataLoader(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Return the AirBnB London data set csv file.
+     */
+    public File getFile() throws URISyntaxException {
+        URL url = getClass().getResource("airbnb-london.csv");
+        return new File(url.toURI());
+    }
+
     /**
      * Return an ArrayList containing the rows in the AirBnB London data set csv file.
      */
     public ArrayList<AirbnbListing> load() {
+        ListingTable table = loadTable();
+        ArrayList<AirbnbListing> listings = new ArrayList<AirbnbListing>(table.size());
+        for(int row = 0; row < table.size(); row++)
+            listings.add(table.getListing(row));
+        return listings;
+    }
+
+    /**
+     * Return a Stream of the rows in the AirBnB London data set csv file, in the order they appear in
+     * the file. Rows are read from the file as the stream is consumed, so the data set is never held
+     * in memory as a whole. The stream should be closed once it has been used.
+     */
+    public Stream<AirbnbListing> stream() {
+        try{
+            CSVReader reader = new CSVReader(new FileReader(getFile().getAbsolutePath()));
+            //skip the first row (column headers)
+            reader.readNext();
+            Spliterator<AirbnbListing> rows = new Spliterators.AbstractSpliterator<AirbnbListing>(
+                    Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                public boolean tryAdvance(Consumer<? super AirbnbListing> action) {
+                    try{
+                        String [] line = reader.readNext();
+                        if(line == null)
+                            return false;
+                        action.accept(toListing(line));
+                        return true;
+                    } catch(IOException e){
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+            return StreamSupport.stream(rows, false).onClose(() -> {
+                try{
+                    reader.close();
+                } catch(IOException e){
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch(IOException | URISyntaxException e){
+            System.out.println("Failure! Something went wrong");
+            e.printStackTrace();
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Pass each row in the AirBnB London data set csv file to the consumer, in the order they appear
+     * in the file, without holding the data set in memory.
+     */
+    public void forEach(Consumer<? super AirbnbListing> consumer) {
+        try(Stream<AirbnbListing> listings = stream()){
+            listings.forEach(consumer);
+        }
+    }
+
+    /**
+     * Return a ListingTable containing the rows in the AirBnB London data set csv file,
+     * in the order they appear in the file.
+     */
+    public ListingTable loadTable() {
         //System.out.print("Begin loading Airbnb london dataset...");
-        ArrayList<AirbnbListing> listings = new ArrayList<AirbnbListing>();
+        ListingTable table = new ListingTable();
         try{
-            URL url = getClass().getResource("airbnb-london.csv");
-            CSVReader reader = new CSVReader(new FileReader(new File(url.toURI()).getAbsolutePath()));
+            if(parallel)
+                return new ListingCsvParser().parse(getFile());
+            CSVReader reader = new CSVReader(new FileReader(getFile().getAbsolutePath()));
             String [] line;
             //skip the first row (column headers)
             reader.readNext();
@@ -28,56 +120,40 @@ public class AirbnbDataLoader {
                 String host_id = line[2];
                 String host_name = line[3];
                 String neighbourhood = line[4];
-                double latitude = convertDouble(line[5]);
-                double longitude = convertDouble(line[6]);
+                double latitude = FieldParser.parseDouble(line[5]);
+                double longitude = FieldParser.parseDouble(line[6]);
                 String room_type = line[7];
-                int price = convertInt(line[8]);
-                int minimumNights = convertInt(line[9]);
-                int numberOfReviews = convertInt(line[10]);
+                int price = FieldParser.parseInt(line[8]);
+                int minimumNights = FieldParser.parseInt(line[9]);
+                int numberOfReviews = FieldParser.parseInt(line[10]);
                 String lastReview = line[11];
-                double reviewsPerMonth = convertDouble(line[12]);
-                int calculatedHostListingsCount = convertInt(line[13]);
-                int availability365 = convertInt(line[14]);
+                double reviewsPerMonth = FieldParser.parseDouble(line[12]);
+                int calculatedHostListingsCount = FieldParser.parseInt(line[13]);
+                int availability365 = FieldParser.parseInt(line[14]);
 
-                AirbnbListing listing = new AirbnbListing(id, name, host_id,
+                table.add(id, name, host_id,
                         host_name, neighbourhood, latitude, longitude, room_type,
                         price, minimumNights, numberOfReviews, lastReview,
                         reviewsPerMonth, calculatedHostListingsCount, availability365
                     );
-                listings.add(listing);
             }
         } catch(IOException | URISyntaxException e){
             System.out.println("Failure! Something went wrong");
             e.printStackTrace();
         }
-        //System.out.println("Success! Number of loaded records: " + listings.size());
-        return listings;
-    }
-
-    /**
-     *
-     * @param doubleString the string to be converted to Double type
-     * @return the Double value of the string, or -1.0 if the string is 
-     * either empty or just whitespace
-     */
-    private Double convertDouble(String doubleString){
-        if(doubleString != null && !doubleString.trim().equals("")){
-            return Double.parseDouble(doubleString);
-        }
-        return -1.0;
+        //System.out.println("Success! Number of loaded records: " + table.size());
+        return table;
     }
 
     /**
-     *
-     * @param intString the string to be converted to Integer type
-     * @return the Integer value of the string, or -1 if the string is 
-     * either empty or just whitespace
+     * Return the AirbnbListing for one row of the csv file.
      */
-    private Integer convertInt(String intString){
-        if(intString != null && !intString.trim().equals("")){
-            return Integer.parseInt(intString);
-        }
-        return -1;
+    private AirbnbListing toListing(String [] line) {
+        return new AirbnbListing(line[0], line[1], line[2], line[3], line[4],
+                FieldParser.parseDouble(line[5]), FieldParser.parseDouble(line[6]), line[7],
+                FieldParser.parseInt(line[8]), FieldParser.parseInt(line[9]), FieldParser.parseInt(line[10]),
+                line[11], FieldParser.parseDouble(line[12]), FieldParser.parseInt(line[13]),
+                FieldParser.parseInt(line[14])
+            );
     }
-
 }
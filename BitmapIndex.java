@@ -0,0 +1,173 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+/**
+ * The BitmapIndex class holds bitmaps over the rows of a ListingTable, used to answer ListingQuery
+ * queries. Bit r of a bitmap is set if row r of the table belongs to it.
+ * There is a bitmap for each neighbourhood and each room type. Each numeric column is split into
+ * buckets holding about the same number of rows, with a bitmap for each bucket, so that a range of
+ * values is the union of the buckets inside it plus the matching rows of the (at most two) buckets
+ * that it only partly covers.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class BitmapIndex
+{
+    // The names of the numeric columns that can be queried, as in AirbnbListing.
+    public static final String PRICE = "price", MINIMUM_NIGHTS = "minimumNights",
+        NUMBER_OF_REVIEWS = "numberOfReviews", HOST_LISTINGS_COUNT = "calculatedHostListingsCount",
+        AVAILABILITY_365 = "availability365";
+    // The number of buckets each numeric column is split into.
+    private static final int BUCKETS = 32;
+
+    private ListingTable table;
+    private BitSet[] neighbourhoodBitmaps;
+    private BitSet[] roomTypeBitmaps;
+    private HashMap<String, Buckets> numericColumns;
+
+    /**
+     * Constructor for objects of class BitmapIndex
+     */
+    public BitmapIndex(ListingTable table)
+    {
+        this.table = table;
+        neighbourhoodBitmaps = new BitSet[table.getNeighbourhoods().size()];
+        roomTypeBitmaps = new BitSet[table.getRoomTypes().size()];
+        for(int code = 0; code < neighbourhoodBitmaps.length; code++)
+            neighbourhoodBitmaps[code] = new BitSet(table.size());
+        for(int code = 0; code < roomTypeBitmaps.length; code++)
+            roomTypeBitmaps[code] = new BitSet(table.size());
+        for(int row = 0; row < table.size(); row++) {
+            neighbourhoodBitmaps[table.getNeighbourhoodCode(row)].set(row);
+            roomTypeBitmaps[table.getRoomTypeCode(row)].set(row);
+        }
+        numericColumns = new HashMap<>();
+        for(String column : new String[] {PRICE, MINIMUM_NIGHTS, NUMBER_OF_REVIEWS, HOST_LISTINGS_COUNT, AVAILABILITY_365})
+            numericColumns.put(column, new Buckets(column));
+    }
+
+    /**
+     * Returns the number of rows of the table.
+     */
+    public int size()
+    {
+        return table.size();
+    }
+
+    /**
+     * Returns a new bitmap of every row of the table.
+     */
+    public BitSet all()
+    {
+        BitSet rows = new BitSet(table.size());
+        rows.set(0, table.size());
+        return rows;
+    }
+
+    /**
+     * Returns a new bitmap of the rows of the listings in the given neighbourhood.
+     */
+    public BitSet neighbourhood(String neighbourhood)
+    {
+        int code = table.getNeighbourhoods().codeOf(neighbourhood);
+        return code < 0 ? new BitSet() : (BitSet) neighbourhoodBitmaps[code].clone();
+    }
+
+    /**
+     * Returns a new bitmap of the rows of the listings of the given room type.
+     */
+    public BitSet roomType(String roomType)
+    {
+        int code = table.getRoomTypes().codeOf(roomType);
+        return code < 0 ? new BitSet() : (BitSet) roomTypeBitmaps[code].clone();
+    }
+
+    /**
+     * Returns a new bitmap of the rows whose value in the given numeric column is from min to max (inclusive).
+     * @param column one of PRICE, MINIMUM_NIGHTS, NUMBER_OF_REVIEWS, HOST_LISTINGS_COUNT and AVAILABILITY_365
+     */
+    public BitSet range(String column, int min, int max)
+    {
+        Buckets buckets = numericColumns.get(column);
+        if(buckets == null)
+            throw new IllegalArgumentException("Not a numeric column: " + column);
+        BitSet rows = new BitSet(table.size());
+        for(int bucket = 0; bucket < buckets.lowest.length; bucket++) {
+            int lowest = buckets.lowest[bucket];
+            int highest = bucket + 1 < buckets.lowest.length ? buckets.lowest[bucket + 1] - 1 : Integer.MAX_VALUE;
+            if(highest < min || lowest > max)
+                continue;
+            BitSet bitmap = buckets.bitmaps[bucket];
+            if(lowest >= min && highest <= max) {
+                rows.or(bitmap);
+            } else {
+                // The range only covers part of this bucket, so its rows are checked one by one.
+                for(int row = bitmap.nextSetBit(0); row >= 0; row = bitmap.nextSetBit(row + 1)) {
+                    int value = value(column, row);
+                    if(value >= min && value <= max)
+                        rows.set(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the value of a numeric column in the given row.
+     */
+    private int value(String column, int row)
+    {
+        switch(column) {
+            case PRICE:
+                return table.getPrice(row);
+            case MINIMUM_NIGHTS:
+                return table.getMinimumNights(row);
+            case NUMBER_OF_REVIEWS:
+                return table.getNumberOfReviews(row);
+            case HOST_LISTINGS_COUNT:
+                return table.getCalculatedHostListingsCount(row);
+            default:
+                return table.getAvailability365(row);
+        }
+    }
+
+    /**
+     * The buckets of a numeric column: bucket b holds the rows with values from lowest[b] up to, but not
+     * including, lowest[b + 1].
+     */
+    private class Buckets
+    {
+        private int[] lowest;
+        private BitSet[] bitmaps;
+
+        Buckets(String column)
+        {
+            int[] values = new int[table.size()];
+            for(int row = 0; row < values.length; row++)
+                values[row] = value(column, row);
+            int[] sorted = values.clone();
+            Arrays.sort(sorted);
+            // The bucket boundaries are evenly spaced in the sorted values, without repeating a value.
+            int[] bounds = new int[BUCKETS];
+            int count = 0;
+            for(int bucket = 0; bucket < BUCKETS && sorted.length > 0; bucket++) {
+                int bound = sorted[(int) ((long) bucket * sorted.length / BUCKETS)];
+                if(count == 0 || bound > bounds[count - 1])
+                    bounds[count++] = bound;
+            }
+            if(count == 0)
+                bounds[count++] = Integer.MIN_VALUE;
+            bounds[0] = Integer.MIN_VALUE;
+            lowest = Arrays.copyOf(bounds, count);
+            bitmaps = new BitSet[count];
+            for(int bucket = 0; bucket < count; bucket++)
+                bitmaps[bucket] = new BitSet(values.length);
+            for(int row = 0; row < values.length; row++) {
+                int position = Arrays.binarySearch(lowest, values[row]);
+                bitmaps[position >= 0 ? position : -position - 2].set(row);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+/**
+ * The test class BitmapIndexTest. Queries are checked against a scan of every row of the table.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class BitmapIndexTest
+{
+    private static final String[] NEIGHBOURHOODS = {"Barnet", "Camden", "Hackney", "Merton"};
+    private static final String[] ROOM_TYPES = {"Entire home/apt", "Private room", "Shared room"};
+
+    private ListingTable table;
+    private BitmapIndex index;
+
+    /**
+     * Default constructor for test class BitmapIndexTest
+     */
+    public BitmapIndexTest()
+    {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp()
+    {
+        // Few distinct, skewed values, so that many rows share the values at the bucket boundaries.
+        table = new ListingTable();
+        Random random = new Random(1);
+        for(int row = 0; row < 5000; row++) {
+            int price = random.nextInt(4) == 0 ? 100 : random.nextInt(60);
+            table.add(Integer.toString(row), "Flat", "h", "Host", NEIGHBOURHOODS[random.nextInt(NEIGHBOURHOODS.length)],
+                      51.5, -0.1, ROOM_TYPES[random.nextInt(ROOM_TYPES.length)], price, 1 + random.nextInt(30),
+                      random.nextInt(5), "", -1, 1, random.nextInt(366));
+        }
+        index = new BitmapIndex(table);
+    }
+
+    @Test
+    public void TestRangesMatchScan()
+    {
+        for(int min = -1; min <= 102; min++) {
+            for(int max = min - 1; max <= 102; max++) {
+                int low = min, high = max;
+                assertEquals(min + " to " + max, scan(row -> table.getPrice(row) >= low && table.getPrice(row) <= high),
+                             index.range(BitmapIndex.PRICE, min, max));
+            }
+        }
+        assertEquals(scan(row -> table.getNumberOfReviews(row) == 0), index.range(BitmapIndex.NUMBER_OF_REVIEWS, 0, 0));
+        assertEquals(scan(row -> true), index.range(BitmapIndex.AVAILABILITY_365, Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void TestCombinedQueriesMatchScan()
+    {
+        ListingQuery query = ListingQuery.neighbourhood("Camden").and(ListingQuery.roomType("Private room"))
+            .and(ListingQuery.between(BitmapIndex.PRICE, 20, 40)).and(ListingQuery.atLeast(BitmapIndex.MINIMUM_NIGHTS, 3));
+        assertEquals(scan(row -> table.getNeighbourhood(row).equals("Camden") && table.getRoomType(row).equals("Private room")
+                                 && table.getPrice(row) >= 20 && table.getPrice(row) <= 40 && table.getMinimumNights(row) >= 3),
+                     query.evaluate(index));
+
+        query = ListingQuery.neighbourhood("Barnet").or(ListingQuery.atMost(BitmapIndex.PRICE, 10))
+            .and(ListingQuery.roomType("Shared room").not());
+        assertEquals(scan(row -> (table.getNeighbourhood(row).equals("Barnet") || table.getPrice(row) <= 10)
+                                 && !table.getRoomType(row).equals("Shared room")),
+                     query.evaluate(index));
+
+        assertEquals(new BitSet(), ListingQuery.neighbourhood("Nowhere").evaluate(index));
+        assertEquals(scan(row -> true), ListingQuery.neighbourhood("Nowhere").not().evaluate(index));
+    }
+
+    /**
+     * Returns a bitmap of the rows of the table that the test accepts, found by visiting every row.
+     */
+    private BitSet scan(IntPredicate test)
+    {
+        BitSet rows = new BitSet();
+        for(int row = 0; row < table.size(); row++) {
+            if(test.test(row))
+                rows.set(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * The BloomFilter class is a set of Strings that can answer "definitely not in the set" or "possibly in
+ * the set" using about 10 bits per String. With 10 bits and 7 hash functions per String, about 1% of
+ * the Strings that are not in the set are reported as possibly in it.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class BloomFilter
+{
+    private static final int BITS_PER_ENTRY = 10;
+    private static final int HASHES = 7;
+
+    private long[] bits;
+
+    /**
+     * Constructor for objects of class BloomFilter
+     * @param expectedEntries the number of Strings that will be added
+     */
+    public BloomFilter(int expectedEntries)
+    {
+        long size = Math.max(64L, (long) expectedEntries * BITS_PER_ENTRY);
+        bits = new long[(int) Math.min(Integer.MAX_VALUE - 8, (size + 63) / 64)];
+    }
+
+    /**
+     * Constructor for objects of class BloomFilter, with the bits of a filter returned by getBits().
+     */
+    public BloomFilter(long[] bits)
+    {
+        this.bits = bits;
+    }
+
+    /**
+     * Adds a String to the set.
+     */
+    public void add(String key)
+    {
+        long size = (long) bits.length * 64;
+        int first = key.hashCode();
+        int second = secondHash(key);
+        for(int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(first + (long) i * second, size);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Returns false if the String is definitely not in the set, and true if it might be.
+     */
+    public boolean mightContain(String key)
+    {
+        long size = (long) bits.length * 64;
+        int first = key.hashCode();
+        int second = secondHash(key);
+        for(int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(first + (long) i * second, size);
+            if((bits[(int) (bit >>> 6)] & (1L << bit)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the bits of the filter, for example to save them. The returned array must not be modified.
+     */
+    public long[] getBits()
+    {
+        return bits;
+    }
+
+    /**
+     * Returns a hash of the String that is independent of String.hashCode(), using FNV-1a.
+     */
+    private static int secondHash(String key)
+    {
+        int hash = 0x811C9DC5;
+        for(int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x01000193;
+        }
+        // An odd step visits different bits for each of the hash functions.
+        return hash | 1;
+    }
+}
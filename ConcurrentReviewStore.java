@@ -0,0 +1,177 @@
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.opencsv.CSVReader;
+
+/**
+ * The ConcurrentReviewStore class is a review store that many threads can read and write at once, for
+ * example behind a service with many users.
+ * The reviews of each property are kept in memory as an array that is never changed: a write copies the
+ * array with the new review added and publishes the copy, so a read takes the current array without any
+ * locking and always sees a complete set of reviews. Writes to the same property are serialised by one
+ * of a fixed number of locks, chosen by property ID, so writes to different properties rarely wait for
+ * each other. The reviews are appended to the csv file by a single ReviewAppender, which writes whole
+ * lines in the order in which they were queued, so lines never interleave.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class ConcurrentReviewStore
+{
+    // The number of locks the properties are spread over.
+    private static final int STRIPES = 64;
+    private static final Review[] NO_REVIEWS = new Review[0];
+
+    private ConcurrentHashMap<String, Review[]> reviewsByProperty;
+    private Object[] locks;
+    private AtomicInteger count;
+    private ReviewAppender appender;
+
+    /**
+     * Opens the store, reading the reviews already in the csv file, with reviews written in batches every
+     * 10 milliseconds and forced to the disk.
+     */
+    public ConcurrentReviewStore(File file) throws IOException
+    {
+        this(file, 10, true);
+    }
+
+    /**
+     * Opens the store, reading the reviews already in the csv file, which is created if it does not exist.
+     * @param flushIntervalMillis how long reviews are gathered before they are written together
+     * @param sync whether each write is forced to the disk before it is reported as complete
+     */
+    public ConcurrentReviewStore(File file, long flushIntervalMillis, boolean sync) throws IOException
+    {
+        reviewsByProperty = new ConcurrentHashMap<>();
+        locks = new Object[STRIPES];
+        for(int i = 0; i < STRIPES; i++)
+            locks[i] = new Object();
+        count = new AtomicInteger();
+        if(file.exists())
+            load(file);
+        else
+            Files.write(file.toPath(), "propertyID,author,rating,comment".getBytes(StandardCharsets.UTF_8));
+        appender = new ReviewAppender(file, flushIntervalMillis, sync);
+    }
+
+    /**
+     * Adds a review. It can be read straight away; the returned future completes when it has been written
+     * to the file, or completes exceptionally if it could not be.
+     */
+    public CompletableFuture<Void> write(String propertyID, String reviewerName, int rating, String review)
+    {
+        // The review is added to the reviews in memory straight away, and removed again if it cannot be written.
+        Review added = new Review(propertyID, reviewerName, rating, review);
+        CompletableFuture<Void> written;
+        synchronized(lockFor(propertyID)) {
+            add(added);
+            // Queuing the review while holding the lock keeps each property's reviews in the same order in
+            // the file as in memory.
+            written = appender.append(propertyID, reviewerName, rating, review);
+        }
+        written.whenComplete((result, error) -> {
+            if(error != null)
+                remove(added);
+        });
+        return written;
+    }
+
+    /**
+     * Returns the reviews of the property with the given ID, in the order in which they were written.
+     * The list is a snapshot, and does not change when more reviews are written.
+     */
+    public ArrayList<Review> read(String propertyID)
+    {
+        return new ArrayList<>(Arrays.asList(reviewsByProperty.getOrDefault(propertyID, NO_REVIEWS)));
+    }
+
+    /**
+     * Returns the number of reviews in the store.
+     */
+    public int size()
+    {
+        return count.get();
+    }
+
+    /**
+     * Writes the reviews that are still waiting to be written, and closes the file.
+     */
+    public void close()
+    {
+        appender.close();
+    }
+
+    /**
+     * Adds a review to the property's reviews in memory. The caller must hold the property's lock.
+     */
+    private void add(Review review)
+    {
+        Review[] current = reviewsByProperty.getOrDefault(review.getId(), NO_REVIEWS);
+        Review[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = review;
+        reviewsByProperty.put(review.getId(), updated);
+        count.incrementAndGet();
+    }
+
+    /**
+     * Removes a review that could not be written from the property's reviews in memory.
+     */
+    private void remove(Review review)
+    {
+        synchronized(lockFor(review.getId())) {
+            Review[] current = reviewsByProperty.getOrDefault(review.getId(), NO_REVIEWS);
+            for(int i = 0; i < current.length; i++) {
+                if(current[i] == review) {
+                    Review[] updated = new Review[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, updated.length - i);
+                    reviewsByProperty.put(review.getId(), updated);
+                    count.decrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the lock that serialises writes to the property's reviews.
+     */
+    private Object lockFor(String propertyID)
+    {
+        return locks[Math.floorMod(propertyID.hashCode(), STRIPES)];
+    }
+
+    /**
+     * Reads the reviews in the csv file into memory.
+     */
+    private void load(File file) throws IOException
+    {
+        // Reviews are grouped first, so that each property's array is only copied once.
+        HashMap<String, ArrayList<Review>> loaded = new HashMap<>();
+        try(CSVReader reader = new CSVReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String [] line;
+            //skip the first row (column headers)
+            reader.readNext();
+            while ((line = reader.readNext()) != null) {
+                // Blank lines have a single empty field.
+                if(line.length < 4)
+                    continue;
+                Review review = new Review(line[0], line[1], FieldParser.parseInt(line[2]), line[3]);
+                loaded.computeIfAbsent(review.getId(), id -> new ArrayList<>()).add(review);
+                count.incrementAndGet();
+            }
+        }
+        for(String propertyID : loaded.keySet())
+            reviewsByProperty.put(propertyID, loaded.get(propertyID).toArray(NO_REVIEWS));
+    }
+}
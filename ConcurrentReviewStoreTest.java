@@ -0,0 +1,206 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The test class ConcurrentReviewStoreTest. Many threads write and read the store at once, and every
+ * review must then be found exactly once, complete, in the order in which its writer wrote it, both in
+ * memory and in the file. Platform threads are used, as virtual threads need a newer Java.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class ConcurrentReviewStoreTest
+{
+    private static final int WRITERS = 32, READERS = 8, REVIEWS_PER_WRITER = 500, PROPERTIES = 50;
+
+    private File file;
+    private ConcurrentReviewStore store;
+
+    /**
+     * Default constructor for test class ConcurrentReviewStoreTest
+     */
+    public ConcurrentReviewStoreTest()
+    {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() throws IOException
+    {
+        file = File.createTempFile("reviews", ".csv");
+        file.delete();
+        store = new ConcurrentReviewStore(file, 1, false);
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown()
+    {
+        store.close();
+        file.delete();
+    }
+
+    @Test
+    public void TestConcurrentWritesAndReads() throws Exception
+    {
+        ExecutorService threads = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<CompletableFuture<Void>> written = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+        ArrayList<Future<?>> writers = new ArrayList<>();
+        for(int writer = 0; writer < WRITERS; writer++) {
+            String author = "writer" + writer;
+            writers.add(threads.submit(() -> {
+                Random random = new Random(author.hashCode());
+                start.await();
+                for(int i = 0; i < REVIEWS_PER_WRITER; i++) {
+                    String property = Integer.toString(random.nextInt(PROPERTIES));
+                    written.add(store.write(property, author, 1 + i % 5, comment(author, i)));
+                }
+                return null;
+            }));
+        }
+        for(int reader = 0; reader < READERS; reader++) {
+            threads.submit(() -> {
+                Random random = new Random();
+                start.await();
+                while(writing.get()) {
+                    String failure = checkReviews(store.read(Integer.toString(random.nextInt(PROPERTIES))));
+                    if(failure != null)
+                        failures.add(failure);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        for(Future<?> writer : writers)
+            writer.get();
+        writing.set(false);
+        threads.shutdown();
+        assertTrue(threads.awaitTermination(1, TimeUnit.MINUTES));
+        CompletableFuture.allOf(written.toArray(new CompletableFuture<?>[0])).get();
+        assertTrue("Readers saw: " + failures.peek(), failures.isEmpty());
+
+        // No review is lost or repeated.
+        assertEquals(WRITERS * REVIEWS_PER_WRITER, store.size());
+        HashMap<String, ArrayList<Review>> inMemory = new HashMap<>();
+        HashSet<String> comments = new HashSet<>();
+        for(int property = 0; property < PROPERTIES; property++) {
+            ArrayList<Review> reviews = store.read(Integer.toString(property));
+            assertNull(checkReviews(reviews));
+            for(Review review : reviews)
+                assertTrue(comments.add(review.getComment()));
+            inMemory.put(Integer.toString(property), reviews);
+        }
+        assertEquals(WRITERS * REVIEWS_PER_WRITER, comments.size());
+
+        // The file holds the same reviews in the same order.
+        store.close();
+        store = new ConcurrentReviewStore(file, 1, false);
+        assertEquals(WRITERS * REVIEWS_PER_WRITER, store.size());
+        for(int property = 0; property < PROPERTIES; property++) {
+            ArrayList<Review> reloaded = store.read(Integer.toString(property));
+            ArrayList<Review> expected = inMemory.get(Integer.toString(property));
+            assertEquals(expected.size(), reloaded.size());
+            for(int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getAuthor(), reloaded.get(i).getAuthor());
+                assertEquals(expected.get(i).getRating(), reloaded.get(i).getRating());
+                assertEquals(expected.get(i).getComment(), reloaded.get(i).getComment());
+            }
+        }
+    }
+
+    @Test
+    public void TestReadIsSnapshot() throws Exception
+    {
+        CompletableFuture<Void> first = store.write("1", "Alex", 3, "It was alright.");
+        ArrayList<Review> before = store.read("1");
+        CompletableFuture<Void> second = store.write("1", "Bhanu", 2, "Terrible, \"really\".");
+        assertEquals(1, before.size());
+        assertEquals(2, store.read("1").size());
+        assertEquals(0, store.read("2").size());
+        CompletableFuture.allOf(first, second).get();
+    }
+
+    @Test
+    public void TestCloseWithPendingWrites() throws Exception
+    {
+        // The long flush interval keeps the reviews waiting to be written when the store is closed.
+        store.close();
+        store = new ConcurrentReviewStore(file, 10000, false);
+        ArrayList<CompletableFuture<Void>> written = new ArrayList<>();
+        for(int i = 0; i < 5000; i++)
+            written.add(store.write(Integer.toString(i % PROPERTIES), "writer0", 1 + i % 5, comment("writer0", i)));
+        store.close();
+        for(CompletableFuture<Void> future : written)
+            future.get();
+        store = new ConcurrentReviewStore(file, 1, false);
+        assertEquals(5000, store.size());
+    }
+
+    @Test
+    public void TestFailedWriteIsRolledBack()
+    {
+        store.close();
+        CompletableFuture<Void> written = store.write("1", "Alex", 3, "Never saved.");
+        assertTrue(written.isCompletedExceptionally());
+        assertEquals(0, store.read("1").size());
+        assertEquals(0, store.size());
+    }
+
+    /**
+     * Returns a comment that identifies its writer and position, and holds characters that must be escaped.
+     */
+    private static String comment(String author, int i)
+    {
+        return author + "," + i + ",\"quoted\"\nsecond line";
+    }
+
+    /**
+     * Returns a description of the first problem with the reviews of a property, or null if there is none:
+     * a review whose fields do not belong together, or two reviews of a writer out of order.
+     */
+    private static String checkReviews(ArrayList<Review> reviews)
+    {
+        HashMap<String, Integer> lastPositions = new HashMap<>();
+        for(Review review : reviews) {
+            if(review == null)
+                return "a missing review";
+            String[] parts = review.getComment().split(",", 3);
+            if(parts.length != 3 || !parts[0].equals(review.getAuthor()) || !review.getComment().equals(comment(review.getAuthor(), Integer.parseInt(parts[1]))))
+                return "a torn review: " + review.getComment();
+            int position = Integer.parseInt(parts[1]);
+            if(review.getRating() != 1 + position % 5)
+                return "a torn review: rating " + review.getRating() + " for " + review.getComment();
+            Integer last = lastPositions.put(review.getAuthor(), position);
+            if(last != null && last >= position)
+                return "reviews out of order: " + last + " before " + position;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,198 @@
+import java.nio.ByteBuffer;
+
+/**
+ * The FieldParser class converts the numeric fields of the csv files into ints and doubles.
+ * It reads the characters or bytes of a field directly and returns primitives, so a field is
+ * converted without creating a trimmed copy of it or a boxed Integer or Double.
+ * As before, a field that is empty or just whitespace is read as -1 (or -1.0).
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class FieldParser
+{
+    // The powers of ten that can be represented exactly by a double.
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * @param field the field to be converted to int type
+     * @return the int value of the field, or -1 if the field is either null, empty or just whitespace
+     */
+    public static int parseInt(CharSequence field)
+    {
+        if(field == null)
+            return -1;
+        return parseInt(field, 0, field.length());
+    }
+
+    /**
+     * @return the int value of the characters from (inclusive) to (exclusive) of the field, or -1 if
+     * they are either empty or just whitespace
+     */
+    public static int parseInt(CharSequence field, int from, int to)
+    {
+        while(from < to && field.charAt(from) <= ' ')
+            from++;
+        while(to > from && field.charAt(to - 1) <= ' ')
+            to--;
+        if(from == to)
+            return -1;
+        boolean negative = field.charAt(from) == '-';
+        int i = negative || field.charAt(from) == '+' ? from + 1 : from;
+        // Numbers of up to 9 digits cannot overflow an int.
+        if(i == to || to - i > 9)
+            return Integer.parseInt(field.subSequence(from, to).toString());
+        int value = 0;
+        for(; i < to; i++) {
+            int digit = field.charAt(i) - '0';
+            if(digit < 0 || digit > 9)
+                return Integer.parseInt(field.subSequence(from, to).toString());
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * @return the int value of the bytes from (inclusive) to (exclusive) of the buffer, or -1 if they
+     * are either empty or just whitespace
+     */
+    public static int parseInt(ByteBuffer buffer, int from, int to)
+    {
+        while(from < to && (buffer.get(from) & 0xFF) <= ' ')
+            from++;
+        while(to > from && (buffer.get(to - 1) & 0xFF) <= ' ')
+            to--;
+        if(from == to)
+            return -1;
+        boolean negative = buffer.get(from) == '-';
+        int i = negative || buffer.get(from) == '+' ? from + 1 : from;
+        if(i == to || to - i > 9)
+            return Integer.parseInt(toString(buffer, from, to));
+        int value = 0;
+        for(; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if(digit < 0 || digit > 9)
+                return Integer.parseInt(toString(buffer, from, to));
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * @param field the field to be converted to double type
+     * @return the double value of the field, or -1.0 if the field is either null, empty or just whitespace
+     */
+    public static double parseDouble(CharSequence field)
+    {
+        if(field == null)
+            return -1.0;
+        return parseDouble(field, 0, field.length());
+    }
+
+    /**
+     * @return the double value of the characters from (inclusive) to (exclusive) of the field, or -1.0
+     * if they are either empty or just whitespace
+     */
+    public static double parseDouble(CharSequence field, int from, int to)
+    {
+        while(from < to && field.charAt(from) <= ' ')
+            from++;
+        while(to > from && field.charAt(to - 1) <= ' ')
+            to--;
+        if(from == to)
+            return -1.0;
+        boolean negative = field.charAt(from) == '-';
+        int i = negative || field.charAt(from) == '+' ? from + 1 : from;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean point = false;
+        boolean anyDigits = false;
+        for(; i < to; i++) {
+            char c = field.charAt(i);
+            if(c >= '0' && c <= '9') {
+                anyDigits = true;
+                // Leading zeros are not significant digits.
+                if(mantissa != 0 || c != '0') {
+                    mantissa = mantissa * 10 + (c - '0');
+                    digits++;
+                }
+                if(point)
+                    scale++;
+            } else if(c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if(i < to || !anyDigits || digits > 15 || scale > 22)
+            return Double.parseDouble(field.subSequence(from, to).toString());
+        return toDouble(negative, mantissa, scale);
+    }
+
+    /**
+     * @return the double value of the bytes from (inclusive) to (exclusive) of the buffer, or -1.0 if
+     * they are either empty or just whitespace
+     */
+    public static double parseDouble(ByteBuffer buffer, int from, int to)
+    {
+        while(from < to && (buffer.get(from) & 0xFF) <= ' ')
+            from++;
+        while(to > from && (buffer.get(to - 1) & 0xFF) <= ' ')
+            to--;
+        if(from == to)
+            return -1.0;
+        boolean negative = buffer.get(from) == '-';
+        int i = negative || buffer.get(from) == '+' ? from + 1 : from;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean point = false;
+        boolean anyDigits = false;
+        for(; i < to; i++) {
+            byte b = buffer.get(i);
+            if(b >= '0' && b <= '9') {
+                anyDigits = true;
+                if(mantissa != 0 || b != '0') {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                }
+                if(point)
+                    scale++;
+            } else if(b == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if(i < to || !anyDigits || digits > 15 || scale > 22)
+            return Double.parseDouble(toString(buffer, from, to));
+        return toDouble(negative, mantissa, scale);
+    }
+
+    /**
+     * Returns mantissa / 10^scale. A mantissa of at most 15 digits and a power of ten of at most 10^22
+     * are both exact doubles, so a single division gives the correctly rounded result, the same as
+     * Double.parseDouble. Other numbers are left to Double.parseDouble by the callers.
+     */
+    private static double toDouble(boolean negative, long mantissa, int scale)
+    {
+        double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Returns the bytes from (inclusive) to (exclusive) of the buffer as a String. Only used for numbers
+     * that are not handled directly, or to report a field that is not a number.
+     */
+    private static String toString(ByteBuffer buffer, int from, int to)
+    {
+        char[] chars = new char[to - from];
+        for(int i = from; i < to; i++)
+            chars[i - from] = (char) (buffer.get(i) & 0xFF);
+        return new String(chars);
+    }
+}
@@ -0,0 +1,86 @@
+import java.lang.management.ManagementFactory;
+
+/**
+ * A microbenchmark comparing FieldParser with the convertInt/convertDouble methods the data loaders
+ * used before. Each row converts the 7 numeric fields of a listing, and the benchmark reports the
+ * time and the number of bytes allocated per row. Run it with the main method; FieldParser should
+ * allocate 0 bytes per row once the JIT has warmed up.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class FieldParserBenchmark
+{
+    private static final int ROWS = 1_000_000;
+    // The numeric fields of a few listings: latitude, longitude, price, minimum nights,
+    // number of reviews, reviews per month, host listings count and availability.
+    private static final String[][] FIELDS = {
+        {"51.56861288", "-0.1112134", "23", "1", "22", "0.5", "2", "341"},
+        {"51.46709949", "-0.09650707", "50", "2", "1", "", "1", "0"},
+        {"51.50793394", "-0.21369817", "160", "3", "46", "1.36", "14", "364"},
+        {"51.4787636", " -0.05830452 ", "6000", "30", "0", " ", "1", "89"},
+    };
+
+    public static void main(String[] args)
+    {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for(int round = 0; round < 5; round++) {
+            long bytes = threads.getThreadAllocatedBytes(threadId);
+            long time = System.nanoTime();
+            double result = convertRows();
+            time = System.nanoTime() - time;
+            bytes = threads.getThreadAllocatedBytes(threadId) - bytes;
+            System.out.printf("convertInt/convertDouble: %.1f ns/row, %.1f bytes/row (%s)%n",
+                (double) time / ROWS, (double) bytes / ROWS, result);
+
+            bytes = threads.getThreadAllocatedBytes(threadId);
+            time = System.nanoTime();
+            result = parseRows();
+            time = System.nanoTime() - time;
+            bytes = threads.getThreadAllocatedBytes(threadId) - bytes;
+            System.out.printf("FieldParser:              %.1f ns/row, %.1f bytes/row (%s)%n",
+                (double) time / ROWS, (double) bytes / ROWS, result);
+        }
+    }
+
+    private static double convertRows()
+    {
+        double sum = 0;
+        for(int row = 0; row < ROWS; row++) {
+            String[] fields = FIELDS[row & 3];
+            sum += convertDouble(fields[0]) + convertDouble(fields[1]) + convertInt(fields[2])
+                + convertInt(fields[3]) + convertInt(fields[4]) + convertDouble(fields[5])
+                + convertInt(fields[6]) + convertInt(fields[7]);
+        }
+        return sum;
+    }
+
+    private static double parseRows()
+    {
+        double sum = 0;
+        for(int row = 0; row < ROWS; row++) {
+            String[] fields = FIELDS[row & 3];
+            sum += FieldParser.parseDouble(fields[0]) + FieldParser.parseDouble(fields[1]) + FieldParser.parseInt(fields[2])
+                + FieldParser.parseInt(fields[3]) + FieldParser.parseInt(fields[4]) + FieldParser.parseDouble(fields[5])
+                + FieldParser.parseInt(fields[6]) + FieldParser.parseInt(fields[7]);
+        }
+        return sum;
+    }
+
+    private static Double convertDouble(String doubleString)
+    {
+        if(doubleString != null && !doubleString.trim().equals("")){
+            return Double.parseDouble(doubleString);
+        }
+        return -1.0;
+    }
+
+    private static Integer convertInt(String intString)
+    {
+        if(intString != null && !intString.trim().equals("")){
+            return Integer.parseInt(intString);
+        }
+        return -1;
+    }
+}
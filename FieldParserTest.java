@@ -0,0 +1,68 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The test class FieldParserTest.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class FieldParserTest
+{
+    /**
+     * Default constructor for test class FieldParserTest
+     */
+    public FieldParserTest()
+    {
+    }
+
+    @Test
+    public void TestParseInt()
+    {
+        for(String field : new String[] {"0", "23", " 6000 ", "-5", "+7", "2147483647", "-2147483648"}) {
+            assertEquals(Integer.parseInt(field.trim()), FieldParser.parseInt(field));
+            assertEquals(Integer.parseInt(field.trim()), FieldParser.parseInt(bytes(field), 0, field.length()));
+        }
+        assertEquals(-1, FieldParser.parseInt(" "));
+        assertEquals(-1, FieldParser.parseInt(bytes(" \t"), 0, 2));
+    }
+
+    @Test
+    public void TestParseDouble()
+    {
+        for(String field : new String[] {"51.56861288", " -0.05830452 ", "0.5", "1.36", "1e3"}) {
+            assertEquals(Double.parseDouble(field.trim()), FieldParser.parseDouble(field), 0);
+            assertEquals(Double.parseDouble(field.trim()), FieldParser.parseDouble(bytes(field), 0, field.length()), 0);
+        }
+        assertEquals(-1.0, FieldParser.parseDouble(""), 0);
+        assertEquals(-1.0, FieldParser.parseDouble(bytes("  "), 0, 2), 0);
+    }
+
+    @Test
+    public void TestNonAsciiBytesAreNotWhitespace()
+    {
+        // The bytes of characters that are not ASCII are negative, and must not be trimmed as whitespace.
+        for(String field : new String[] {"£50", "50£", "££"}) {
+            ByteBuffer buffer = bytes(field);
+            try {
+                FieldParser.parseInt(buffer, 0, buffer.limit());
+                fail("Parsed " + field + " as an int");
+            }
+            catch(NumberFormatException e) {
+            }
+            try {
+                FieldParser.parseDouble(buffer, 0, buffer.limit());
+                fail("Parsed " + field + " as a double");
+            }
+            catch(NumberFormatException e) {
+            }
+        }
+    }
+
+    private static ByteBuffer bytes(String field)
+    {
+        return ByteBuffer.wrap(field.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -160,7 +160,7 @@ public class GUI extends JFrame implements ActionListener
         markersPanel.setBounds(0, 0, 900, 711);
         markersPanel.setOpaque(false);
 
-        map = new PropertyMap(fromPrice, toPrice);
+        map = PropertyMap.forRange(fromPrice, toPrice);
         HashMap<String, Marker> markers = map.getMarkers();
 
         for(String neighbourhood : markers.keySet()) {
@@ -217,8 +217,8 @@ public class GUI extends JFrame implements ActionListener
      * The user can cycle through the statistics using these arrows. No two boxes show the 
      * same statistic at any given time. The statistics displayed are: avg. no. reviews per
      * property, total no. properties, no. entire homes/apartments, priciest neighbourhood, 
-     * standard deviation of prices, avg. price per night, avg. price for a shared room, 
-     * avg. price for a private room.
+     * standard deviation of prices, avg. price per night, median, 90th and 99th percentile
+     * price per night, avg. price for a shared room, avg. price for a private room.
      */
     private void createStatsPanel()
     {
@@ -231,6 +231,9 @@ public class GUI extends JFrame implements ActionListener
         statistics.add("<html><center><b>Priciest Neighbourhood</b><br><br>" + map.getPriciestNeighbourhood());
         statistics.add("<html><center><b>Standard deviation of prices</b><br><br>" + Integer.toString(map.getStandardDeviation()));
         statistics.add("<html><center><b>Average price per night</b><br><br>" + Integer.toString(map.getAveragePrice()));
+        statistics.add("<html><center><b>Median price per night</b><br><br>" + Integer.toString(map.getMedianPrice()));
+        statistics.add("<html><center><b>90th percentile price per night</b><br><br>" + Integer.toString(map.getNinetiethPercentilePrice()));
+        statistics.add("<html><center><b>99th percentile price per night</b><br><br>" + Integer.toString(map.getNinetyNinthPercentilePrice()));
         statistics.add("<html><center><b>Average price (shared room)</b><br><br>" + Integer.toString(map.getAveragePriceSharedRoom()));
         statistics.add("<html><center><b>Average price (private room)</b><br><br>" + Integer.toString(map.getAveragePricePrivateRoom()));
         
@@ -303,10 +306,16 @@ public class GUI extends JFrame implements ActionListener
                 JOptionPane.showMessageDialog(frame, "You must first select a property.");
                 return;
             }
-            reviewReaderWriter.write(selectedProperty, nameField.getText(), (Integer)chooseRating.getSelectedItem(), reviewField.getText());
-            reviewPanel.removeAll();
-            createReviewPanel();
-            frame.pack();
+            reviewReaderWriter.write(selectedProperty, nameField.getText(), (Integer)chooseRating.getSelectedItem(), reviewField.getText())
+                .whenComplete((written, error) -> SwingUtilities.invokeLater(() -> {
+                    if(error != null) {
+                        JOptionPane.showMessageDialog(frame, "Your review could not be saved.");
+                        return;
+                    }
+                    reviewPanel.removeAll();
+                    createReviewPanel();
+                    frame.pack();
+                }));
         });
         
         JPanel readReview = new JPanel();
@@ -391,45 +400,34 @@ public class GUI extends JFrame implements ActionListener
         
         JPanel popupTopBar = new JPanel();
         popupTopBar.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 0, Color.GRAY));
-        String sortingTypes[] = {"Number of Reviews", "Price", "Host Name"};
+        String sortingTypes[] = {"Number of Reviews", "Price", "Host Name", "Average Rating"};
         JComboBox sorting = new JComboBox(sortingTypes);
         popupTopBar.add(sorting);
         
-        JPanel popupPanel = new JPanel();
-        popupPanel.setLayout(new BoxLayout(popupPanel,BoxLayout.Y_AXIS));
-        popupPanel.add(new JLabel("Host, Price, No. Reviews, Min. Nights"));
-        JScrollPane scroll = new JScrollPane(popupPanel);
+        // The list only holds the rows of the listings; a listing is read when its line is shown.
+        RatingAggregates ratings = reviewReaderWriter.getRatingAggregates();
+        NeighbourhoodListingsModel model = new NeighbourhoodListingsModel(map.getTable(), map.getNeighbourhoodRows(neighbourhood), ratings);
+        JTable listingsTable = new JTable(model);
+        listingsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        listingsTable.addMouseListener(new java.awt.event.MouseAdapter() {
+            public void mouseClicked(java.awt.event.MouseEvent evt) {
+                int position = listingsTable.rowAtPoint(evt.getPoint());
+                if(position >= 0)
+                    createPropertyDescription(model.getListing(position));
+            }
+        });
+        JScrollPane scroll = new JScrollPane(listingsTable);
         scroll.getVerticalScrollBar().setUnitIncrement(16);
         
         sorting.addActionListener(e -> {
-            popupPanel.removeAll();
-            popup.pack();
-            popupPanel.setLayout(new BoxLayout(popupPanel,BoxLayout.Y_AXIS));
-            popupPanel.add(new JLabel("Host, Price, No. Reviews, Min. Nights"));
-            ArrayList<AirbnbListing> sorted = map.sort((String)sorting.getSelectedItem(), neighbourhood);
-            for(AirbnbListing listing : sorted) {
-                String hostName = listing.getHost_name();
-                String price = "£" + Integer.toString(listing.getPrice());
-                String numberOfReviews = Integer.toString(listing.getNumberOfReviews());
-                String minimumNights = Integer.toString(listing.getMinimumNights());
-                JButton selectProperty = new JButton(hostName + ", " + price + ", " + numberOfReviews + ", " + minimumNights);
-                selectProperty.addActionListener((ActionEvent ev) -> {createPropertyDescription(listing); });
-                popupPanel.add(selectProperty);
-            }
-            popup.pack();
+            if(sorting.getSelectedItem().equals("Average Rating"))
+                model.setRows(map.getSortedRowsByRating(neighbourhood, ratings));
+            else
+                model.setRows(map.getSortedRows((String)sorting.getSelectedItem(), neighbourhood));
         });
         
         popupContentPane.add(popupTopBar, BorderLayout.NORTH);
         popupContentPane.add(scroll, BorderLayout.CENTER);
-        for(AirbnbListing listing : map.filterListingsByNeighbourhood(neighbourhood)) {
-            String hostName = listing.getHost_name();
-            String price = "£" + Integer.toString(listing.getPrice());
-            String numberOfReviews = Integer.toString(listing.getNumberOfReviews());
-            String minimumNights = Integer.toString(listing.getMinimumNights());
-            JButton selectProperty = new JButton(hostName + ", " + price + ", " + numberOfReviews + ", " + minimumNights);
-            selectProperty.addActionListener((ActionEvent ev) -> {createPropertyDescription(listing); });
-            popupPanel.add(selectProperty);
-        }
         popup.pack();
         popup.setVisible(true);
     }
@@ -457,6 +455,21 @@ public class GUI extends JFrame implements ActionListener
         propertyDescPane.add(new JLabel("<html><b>Reviews per Month: </b>" + String.valueOf(listing.getReviewsPerMonth())));
         propertyDescPane.add(new JLabel("<html><b>Host Listings Count: </b>" + Integer.toString(listing.getCalculatedHostListingsCount())));
         propertyDescPane.add(new JLabel("<html><b>Availability per Year: </b>" + Integer.toString(listing.getAvailability365())));
+        RatingAggregates ratings = reviewReaderWriter.getRatingAggregates();
+        if(ratings.getCount(listing.getId()) > 0) {
+            int[] histogram = ratings.getHistogram(listing.getId());
+            String stars = "";
+            for(int rating = RatingAggregates.HIGHEST_RATING; rating >= 1; rating--)
+                stars += "<br>" + rating + " stars: " + histogram[rating - 1];
+            propertyDescPane.add(new JLabel("<html><b>Average Rating: </b>" + String.format("%.1f", ratings.getAverage(listing.getId()))
+                                            + " from " + ratings.getCount(listing.getId()) + " reviews" + stars));
+        }
+        propertyDescPane.add(new JLabel("<html><b>Nearby Properties:</b>"));
+        for(AirbnbListing nearby : map.getNearbyListings(listing, 5)) {
+            JButton nearbyProperty = new JButton(nearby.getName() + ", £" + Integer.toString(nearby.getPrice()) + ", " + nearby.getRoom_type());
+            nearbyProperty.addActionListener(e -> {createPropertyDescription(nearby);});
+            propertyDescPane.add(nearbyProperty);
+        }
         JButton selectProperty = new JButton("Select");
         JLabel selected = new JLabel("<html><b>Not selected</b>");
         if(selectedProperty.equals(listing.getId()))
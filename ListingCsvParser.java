@@ -0,0 +1,280 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * The ListingCsvParser class reads the AirBnB data set csv file straight into a ListingTable.
+ * The file is memory-mapped and split into chunks that each start at the beginning of a record,
+ * and the chunks are parsed at the same time on a ForkJoinPool. Numbers are read directly from
+ * the bytes of the file by a FieldParser, so no String is created for a numeric field.
+ * Fields may be quoted as described in RFC 4180: a quoted field may contain commas and line
+ * breaks, and a quote inside a quoted field is written as two quotes.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class ListingCsvParser
+{
+    // The number of columns in the data set.
+    private static final int COLUMNS = 15;
+    // Files smaller than this are parsed as a single chunk.
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final byte QUOTE = '"';
+    private static final byte COMMA = ',';
+    private static final byte NEWLINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private ForkJoinPool pool;
+
+    /**
+     * Constructor for objects of class ListingCsvParser, using the common ForkJoinPool.
+     */
+    public ListingCsvParser()
+    {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for objects of class ListingCsvParser, using the given ForkJoinPool.
+     */
+    public ListingCsvParser(ForkJoinPool pool)
+    {
+        this.pool = pool;
+    }
+
+    /**
+     * Parses the given csv file, skipping its first row (the column headers).
+     * @return a ListingTable with the rows in the order they appear in the file
+     * @throws IOException if the file cannot be read, or is too large to be memory-mapped
+     */
+    public ListingTable parse(File file) throws IOException
+    {
+        try(RandomAccessFile input = new RandomAccessFile(file, "r");
+            FileChannel channel = input.getChannel()) {
+            if(channel.size() > Integer.MAX_VALUE)
+                throw new IOException("File is too large to be memory-mapped: " + file);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return parse(buffer);
+        }
+    }
+
+    /**
+     * Parses the rows of the given buffer, skipping the first row (the column headers).
+     */
+    private ListingTable parse(MappedByteBuffer buffer)
+    {
+        int length = buffer.limit();
+        int start = endOfRecord(buffer, 0, length, false);
+        int chunks = (int) Math.min(pool.getParallelism() * 4L, Math.max(1, (length - start) / MIN_CHUNK_SIZE));
+        int[] boundaries = findChunkBoundaries(buffer, start, length, chunks);
+
+        List<ForkJoinTask<ListingTable>> tasks = new ArrayList<>();
+        for(int i = 0; i < boundaries.length - 1; i++) {
+            int from = boundaries[i];
+            int to = boundaries[i + 1];
+            tasks.add(pool.submit(() -> parseChunk(buffer, from, to)));
+        }
+        ListingTable table = null;
+        for(ForkJoinTask<ListingTable> task : tasks) {
+            if(table == null)
+                table = task.join();
+            else
+                table.addAll(task.join());
+        }
+        return table == null ? new ListingTable() : table;
+    }
+
+    /**
+     * Splits the bytes from start to end into roughly equal chunks, each of which begins at the start
+     * of a record. Whether a position lies inside a quoted field depends on the number of quotes before
+     * it, so the quotes in each part of the file are first counted in parallel.
+     * @return the offsets where the chunks begin, followed by the end offset
+     */
+    private int[] findChunkBoundaries(MappedByteBuffer buffer, int start, int end, int chunks)
+    {
+        if(chunks <= 1)
+            return new int[] {start, end};
+        int[] rawStarts = new int[chunks + 1];
+        for(int i = 0; i <= chunks; i++)
+            rawStarts[i] = start + (int) ((long) (end - start) * i / chunks);
+
+        List<ForkJoinTask<Integer>> counts = new ArrayList<>();
+        for(int i = 0; i < chunks; i++) {
+            int from = rawStarts[i];
+            int to = rawStarts[i + 1];
+            counts.add(pool.submit(() -> countQuotes(buffer, from, to)));
+        }
+        // A raw chunk starts inside a quoted field if an odd number of quotes come before it.
+        boolean[] insideQuotes = new boolean[chunks];
+        int quotes = 0;
+        for(int i = 0; i < chunks; i++) {
+            insideQuotes[i] = (quotes & 1) == 1;
+            quotes += counts.get(i).join();
+        }
+
+        List<ForkJoinTask<Integer>> starts = new ArrayList<>();
+        for(int i = 1; i < chunks; i++) {
+            int from = rawStarts[i];
+            boolean quoted = insideQuotes[i];
+            starts.add(pool.submit(() -> endOfRecord(buffer, from, end, quoted)));
+        }
+        int[] boundaries = new int[chunks + 1];
+        boundaries[0] = start;
+        for(int i = 1; i < chunks; i++)
+            boundaries[i] = Math.max(boundaries[i - 1], starts.get(i - 1).join());
+        boundaries[chunks] = end;
+        return boundaries;
+    }
+
+    private int countQuotes(MappedByteBuffer buffer, int from, int to)
+    {
+        int quotes = 0;
+        for(int i = from; i < to; i++) {
+            if(buffer.get(i) == QUOTE)
+                quotes++;
+        }
+        return quotes;
+    }
+
+    /**
+     * Returns the offset just after the first line break at or after from that is not inside a quoted
+     * field, or end if there is none.
+     * @param insideQuotes whether from lies inside a quoted field
+     */
+    private int endOfRecord(MappedByteBuffer buffer, int from, int end, boolean insideQuotes)
+    {
+        for(int i = from; i < end; i++) {
+            byte b = buffer.get(i);
+            if(b == QUOTE)
+                insideQuotes = !insideQuotes;
+            else if(b == NEWLINE && !insideQuotes)
+                return i + 1;
+        }
+        return end;
+    }
+
+    /**
+     * Parses the records between from and to, which must start at the beginning of a record.
+     */
+    private ListingTable parseChunk(MappedByteBuffer buffer, int from, int to)
+    {
+        ListingTable table = new ListingTable((to - from) / 128);
+        int[] fieldStart = new int[COLUMNS];
+        int[] fieldEnd = new int[COLUMNS];
+        boolean[] fieldQuoted = new boolean[COLUMNS];
+        int position = from;
+        while(position < to) {
+            int field = 0;
+            int start = position;
+            boolean quoted = false;
+            boolean insideQuotes = false;
+            int i = position;
+            // Find where each field of the record begins and ends.
+            for(; i < to; i++) {
+                byte b = buffer.get(i);
+                if(b == QUOTE) {
+                    quoted = true;
+                    insideQuotes = !insideQuotes;
+                } else if(!insideQuotes && (b == COMMA || b == NEWLINE)) {
+                    if(field < COLUMNS) {
+                        fieldStart[field] = start;
+                        fieldEnd[field] = b == NEWLINE && i > start && buffer.get(i - 1) == CARRIAGE_RETURN ? i - 1 : i;
+                        fieldQuoted[field] = quoted;
+                    }
+                    field++;
+                    start = i + 1;
+                    quoted = false;
+                    if(b == NEWLINE)
+                        break;
+                }
+            }
+            if(i == to) {
+                // The last record of the file may not end with a line break.
+                int end = to > start && buffer.get(to - 1) == CARRIAGE_RETURN ? to - 1 : to;
+                if(field < COLUMNS && (field > 0 || end > start)) {
+                    fieldStart[field] = start;
+                    fieldEnd[field] = end;
+                    fieldQuoted[field] = quoted;
+                }
+                if(field > 0 || end > start)
+                    field++;
+            }
+            position = i + 1;
+            // Skip blank lines.
+            if(field == 1 && fieldEnd[0] == fieldStart[0])
+                continue;
+            if(field < COLUMNS)
+                throw new IllegalArgumentException("Record has " + field + " fields instead of " + COLUMNS
+                    + ": " + text(buffer, fieldStart[0], fieldEnd[field - 1], false));
+
+            table.add(text(buffer, fieldStart[0], fieldEnd[0], fieldQuoted[0]),
+                text(buffer, fieldStart[1], fieldEnd[1], fieldQuoted[1]),
+                text(buffer, fieldStart[2], fieldEnd[2], fieldQuoted[2]),
+                text(buffer, fieldStart[3], fieldEnd[3], fieldQuoted[3]),
+                text(buffer, fieldStart[4], fieldEnd[4], fieldQuoted[4]),
+                parseDouble(buffer, fieldStart[5], fieldEnd[5], fieldQuoted[5]),
+                parseDouble(buffer, fieldStart[6], fieldEnd[6], fieldQuoted[6]),
+                text(buffer, fieldStart[7], fieldEnd[7], fieldQuoted[7]),
+                parseInt(buffer, fieldStart[8], fieldEnd[8], fieldQuoted[8]),
+                parseInt(buffer, fieldStart[9], fieldEnd[9], fieldQuoted[9]),
+                parseInt(buffer, fieldStart[10], fieldEnd[10], fieldQuoted[10]),
+                text(buffer, fieldStart[11], fieldEnd[11], fieldQuoted[11]),
+                parseDouble(buffer, fieldStart[12], fieldEnd[12], fieldQuoted[12]),
+                parseInt(buffer, fieldStart[13], fieldEnd[13], fieldQuoted[13]),
+                parseInt(buffer, fieldStart[14], fieldEnd[14], fieldQuoted[14]));
+        }
+        return table;
+    }
+
+    /**
+     * Returns the text of a field, removing its surrounding quotes and unescaping doubled quotes.
+     */
+    private String text(MappedByteBuffer buffer, int from, int to, boolean quoted)
+    {
+        byte[] bytes = new byte[to - from];
+        int length = 0;
+        boolean insideQuotes = false;
+        for(int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if(quoted && b == QUOTE) {
+                // Two quotes inside a quoted field stand for one quote.
+                if(insideQuotes && i + 1 < to && buffer.get(i + 1) == QUOTE) {
+                    bytes[length++] = QUOTE;
+                    i++;
+                } else {
+                    insideQuotes = !insideQuotes;
+                }
+            } else {
+                bytes[length++] = b;
+            }
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the int value of the field, or -1 if the field is either empty or just whitespace
+     */
+    private int parseInt(MappedByteBuffer buffer, int from, int to, boolean quoted)
+    {
+        if(quoted)
+            return FieldParser.parseInt(text(buffer, from, to, true));
+        return FieldParser.parseInt(buffer, from, to);
+    }
+
+    /**
+     * @return the double value of the field, or -1.0 if the field is either empty or just whitespace
+     */
+    private double parseDouble(MappedByteBuffer buffer, int from, int to, boolean quoted)
+    {
+        if(quoted)
+            return FieldParser.parseDouble(text(buffer, from, to, true));
+        return FieldParser.parseDouble(buffer, from, to);
+    }
+}
@@ -0,0 +1,111 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import com.opencsv.CSVReader;
+
+/**
+ * The test class ListingCsvParserTest. The parser splits the file into chunks that are parsed in
+ * parallel, so it is compared with the CSVReader used before on a file large enough to be split, whose
+ * names hold commas, quotes and line breaks and take up most of the file, so that the raw chunk
+ * boundaries fall inside quoted fields.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class ListingCsvParserTest
+{
+    private static final int ROWS = 20000;
+
+    private File file;
+
+    /**
+     * Default constructor for test class ListingCsvParserTest
+     */
+    public ListingCsvParserTest()
+    {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() throws IOException
+    {
+        file = File.createTempFile("listings", ".csv");
+        Random random = new Random(1);
+        try(BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write("id,name,host_id,host_name,neighbourhood,latitude,longitude,room_type,price,minimum_nights,"
+                      + "number_of_reviews,last_review,reviews_per_month,calculated_host_listings_count,availability_365\n");
+            for(int row = 0; row < ROWS; row++) {
+                StringBuilder name = new StringBuilder("\"Flat " + row);
+                for(int part = random.nextInt(12); part >= 0; part--)
+                    name.append(random.nextBoolean() ? ", \"\"cosy\"\"\n near the park" : ", by the Thames\n£" + part);
+                name.append('"');
+                out.write(row + "," + name + ",h" + row % 97 + ",\"Host, " + row % 97 + "\","
+                          + (row % 2 == 0 ? "Barnet" : "\"Kensington and Chelsea\"") + ",51." + row + ",-0." + row
+                          + ",Private room," + (20 + row % 500) + "," + (1 + row % 7) + "," + row % 50 + ","
+                          + (row % 3 == 0 ? "" : "2018-01-01") + "," + (row % 3 == 0 ? "" : "0." + row % 10) + ",1,365");
+                out.write(row % 5 == 0 ? "\r\n" : "\n");
+            }
+        }
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown()
+    {
+        file.delete();
+    }
+
+    @Test
+    public void TestMatchesCsvReader() throws IOException
+    {
+        assertTrue(file.length() > 4 << 20);
+        ArrayList<String[]> expected = new ArrayList<>();
+        try(CSVReader reader = new CSVReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            reader.readNext();
+            String[] line;
+            while((line = reader.readNext()) != null)
+                expected.add(line);
+        }
+        assertEquals(ROWS, expected.size());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ListingTable table = new ListingCsvParser(pool).parse(file);
+        pool.shutdown();
+        assertEquals(ROWS, table.size());
+        for(int row = 0; row < ROWS; row++) {
+            String[] line = expected.get(row);
+            assertEquals(line[0], table.getId(row));
+            assertEquals(line[1], table.getName(row));
+            assertEquals(line[2], table.getHostId(row));
+            assertEquals(line[3], table.getHostName(row));
+            assertEquals(line[4], table.getNeighbourhood(row));
+            assertEquals(Double.parseDouble(line[5]), table.getLatitude(row), 0);
+            assertEquals(Double.parseDouble(line[6]), table.getLongitude(row), 0);
+            assertEquals(line[7], table.getRoomType(row));
+            assertEquals(Integer.parseInt(line[8]), table.getPrice(row));
+            assertEquals(Integer.parseInt(line[9]), table.getMinimumNights(row));
+            assertEquals(Integer.parseInt(line[10]), table.getNumberOfReviews(row));
+            assertEquals(line[11], table.getLastReview(row));
+            assertEquals(FieldParser.parseDouble(line[12]), table.getReviewsPerMonth(row), 0);
+        }
+    }
+}
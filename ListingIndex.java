@@ -0,0 +1,193 @@
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The ListingIndex class holds indexes over the rows of a ListingTable that are built once, when the
+ * data set is loaded, and then shared by every PropertyMap.
+ * For each neighbourhood it keeps the rows of the listings in that neighbourhood, in ascending order.
+ * As the rows of the table are sorted by price, the listings of a neighbourhood within a price range
+ * are a contiguous part of that neighbourhood's rows.
+ * The rows of each room type, and of each room type within each neighbourhood, are kept in the same way.
+ * The rows of each neighbourhood are also kept sorted by number of reviews and by host name, in the
+ * orders used by PropertyMap.sort(), as OrderedRows, so that a page of a neighbourhood's listings within a
+ * price range can be found in either order without comparing them or visiting the rest of the neighbourhood.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class ListingIndex
+{
+    // The rows in each neighbourhood, indexed by neighbourhood code.
+    private int[][] neighbourhoodRows;
+    // The rows of each room type, and of each room type in each neighbourhood, indexed by codes.
+    private int[][] roomTypeRows;
+    private int[][][] neighbourhoodRoomTypeRows;
+    // The rows in each neighbourhood sorted by descending number of reviews, and by host name.
+    // Rows that tie are in descending order of row.
+    private OrderedRows[] neighbourhoodRowsByReviews;
+    private OrderedRows[] neighbourhoodRowsByHost;
+    private ListingTable table;
+    // The rank of each host name code when the host names are sorted ignoring case.
+    private int[] hostRanks;
+
+    /**
+     * Constructor for objects of class ListingIndex
+     */
+    public ListingIndex(ListingTable table)
+    {
+        this.table = table;
+        int neighbourhoods = table.getNeighbourhoods().size();
+        int roomTypes = table.getRoomTypes().size();
+        neighbourhoodRows = groupRows(neighbourhoods, table::getNeighbourhoodCode);
+        roomTypeRows = groupRows(roomTypes, table::getRoomTypeCode);
+        int[][] combinedRows = groupRows(neighbourhoods * roomTypes,
+                                         row -> table.getNeighbourhoodCode(row) * roomTypes + table.getRoomTypeCode(row));
+        neighbourhoodRoomTypeRows = new int[neighbourhoods][roomTypes][];
+        for(int code = 0; code < neighbourhoods; code++)
+            neighbourhoodRoomTypeRows[code] = Arrays.copyOfRange(combinedRows, code * roomTypes, (code + 1) * roomTypes);
+
+        hostRanks = rankHostNames(table);
+        neighbourhoodRowsByReviews = new OrderedRows[neighbourhoods];
+        neighbourhoodRowsByHost = new OrderedRows[neighbourhoods];
+        for(int code = 0; code < neighbourhoods; code++) {
+            neighbourhoodRowsByReviews[code] = new OrderedRows(neighbourhoodRows[code], sortByReviews(neighbourhoodRows[code]));
+            neighbourhoodRowsByHost[code] = new OrderedRows(neighbourhoodRows[code], sortByHost(neighbourhoodRows[code]));
+        }
+    }
+
+    /**
+     * Returns the rows of the listings in the given neighbourhood, in ascending order.
+     * The returned array must not be modified.
+     */
+    public int[] getNeighbourhoodRows(int neighbourhoodCode)
+    {
+        return neighbourhoodRows[neighbourhoodCode];
+    }
+
+    /**
+     * Returns the rows of the listings of the given room type, in ascending order.
+     * The returned array must not be modified.
+     */
+    public int[] getRoomTypeRows(int roomTypeCode)
+    {
+        return roomTypeRows[roomTypeCode];
+    }
+
+    /**
+     * Returns the rows of the listings of the given room type in the given neighbourhood, in ascending order.
+     * The returned array must not be modified.
+     */
+    public int[] getNeighbourhoodRows(int neighbourhoodCode, int roomTypeCode)
+    {
+        return neighbourhoodRoomTypeRows[neighbourhoodCode][roomTypeCode];
+    }
+
+    /**
+     * Returns the rows of the listings in the given neighbourhood, sorted by descending number of reviews.
+     * Rows with the same number of reviews are in descending order.
+     */
+    public OrderedRows getNeighbourhoodRowsByReviews(int neighbourhoodCode)
+    {
+        return neighbourhoodRowsByReviews[neighbourhoodCode];
+    }
+
+    /**
+     * Returns the rows of the listings in the given neighbourhood, sorted by host name ignoring case.
+     * Rows with the same host name are in descending order.
+     */
+    public OrderedRows getNeighbourhoodRowsByHost(int neighbourhoodCode)
+    {
+        return neighbourhoodRowsByHost[neighbourhoodCode];
+    }
+
+    /**
+     * Returns a copy of the given rows sorted by descending number of reviews. Rows with the same number of
+     * reviews are in descending order.
+     */
+    public int[] sortByReviews(int[] rows)
+    {
+        long[] keys = new long[rows.length];
+        // Sorting these keys in ascending order sorts by ascending number of reviews and then by
+        // ascending row, so they are read backwards.
+        for(int i = 0; i < rows.length; i++)
+            keys[i] = ((long) table.getNumberOfReviews(rows[i]) << 32) | rows[i];
+        Arrays.sort(keys);
+        int[] sorted = new int[rows.length];
+        for(int i = 0; i < rows.length; i++)
+            sorted[i] = (int) keys[rows.length - 1 - i];
+        return sorted;
+    }
+
+    /**
+     * Returns a copy of the given rows sorted by host name ignoring case. Rows with the same host name are in
+     * descending order.
+     */
+    public int[] sortByHost(int[] rows)
+    {
+        long[] keys = new long[rows.length];
+        // Sorts by ascending host name rank and then by descending row.
+        for(int i = 0; i < rows.length; i++)
+            keys[i] = ((long) hostRanks[table.getHostNameCode(rows[i])] << 32) | (Integer.MAX_VALUE - rows[i]);
+        Arrays.sort(keys);
+        int[] sorted = new int[rows.length];
+        for(int i = 0; i < rows.length; i++)
+            sorted[i] = Integer.MAX_VALUE - (int) keys[i];
+        return sorted;
+    }
+
+    /**
+     * Returns the rows of the table grouped by a code from 0 to codes - 1, each group in ascending order.
+     */
+    private int[][] groupRows(int codes, IntUnaryOperator codeOf)
+    {
+        int[] counts = new int[codes];
+        for(int row = 0; row < table.size(); row++)
+            counts[codeOf.applyAsInt(row)]++;
+        int[][] groups = new int[codes][];
+        for(int code = 0; code < codes; code++)
+            groups[code] = new int[counts[code]];
+        int[] filled = new int[codes];
+        for(int row = 0; row < table.size(); row++) {
+            int code = codeOf.applyAsInt(row);
+            groups[code][filled[code]++] = row;
+        }
+        return groups;
+    }
+
+    /**
+     * Returns the rank of each host name code when the host names are sorted ignoring case.
+     * Host names that only differ in case have the same rank.
+     */
+    private static int[] rankHostNames(ListingTable table)
+    {
+        StringDictionary hostNames = table.getHostNames();
+        Integer[] codes = new Integer[hostNames.size()];
+        for(int code = 0; code < codes.length; code++)
+            codes[code] = code;
+        Arrays.sort(codes, (first, second) -> hostNames.get(first).compareToIgnoreCase(hostNames.get(second)));
+        int[] ranks = new int[codes.length];
+        for(int i = 1; i < codes.length; i++) {
+            boolean tie = hostNames.get(codes[i]).compareToIgnoreCase(hostNames.get(codes[i - 1])) == 0;
+            ranks[codes[i]] = tie ? ranks[codes[i - 1]] : i;
+        }
+        return ranks;
+    }
+
+    /**
+     * Returns the position of the first row in rows that is at least the given row.
+     * @param rows rows in ascending order
+     */
+    public static int position(int[] rows, int row)
+    {
+        int low = 0;
+        int high = rows.length;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(rows[middle] < row)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+}
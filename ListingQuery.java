@@ -0,0 +1,104 @@
+import java.util.BitSet;
+
+/**
+ * A ListingQuery selects listings by their attributes, for example
+ * ListingQuery.roomType("Entire home/apt").and(ListingQuery.atMost(BitmapIndex.MINIMUM_NIGHTS, 3)).
+ * Queries are combined with and(), or() and not(), and are answered with the bitmaps of a BitmapIndex,
+ * combined with bitwise operations, without reading the listings that are not selected.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public interface ListingQuery
+{
+    /**
+     * Returns a new bitmap of the rows of the index's table that are selected by the query.
+     */
+    BitSet evaluate(BitmapIndex index);
+
+    /**
+     * Returns a query that selects the listings selected by both this query and the other one.
+     */
+    default ListingQuery and(ListingQuery other)
+    {
+        return index -> {
+            BitSet rows = evaluate(index);
+            rows.and(other.evaluate(index));
+            return rows;
+        };
+    }
+
+    /**
+     * Returns a query that selects the listings selected by this query, the other one, or both.
+     */
+    default ListingQuery or(ListingQuery other)
+    {
+        return index -> {
+            BitSet rows = evaluate(index);
+            rows.or(other.evaluate(index));
+            return rows;
+        };
+    }
+
+    /**
+     * Returns a query that selects the listings not selected by this query.
+     */
+    default ListingQuery not()
+    {
+        return index -> {
+            BitSet rows = index.all();
+            rows.andNot(evaluate(index));
+            return rows;
+        };
+    }
+
+    /**
+     * Returns a query that selects every listing.
+     */
+    static ListingQuery all()
+    {
+        return index -> index.all();
+    }
+
+    /**
+     * Returns a query that selects the listings in the given neighbourhood.
+     */
+    static ListingQuery neighbourhood(String neighbourhood)
+    {
+        return index -> index.neighbourhood(neighbourhood);
+    }
+
+    /**
+     * Returns a query that selects the listings of the given room type, for example "Entire home/apt".
+     */
+    static ListingQuery roomType(String roomType)
+    {
+        return index -> index.roomType(roomType);
+    }
+
+    /**
+     * Returns a query that selects the listings whose value in the given numeric column is from min to max
+     * (inclusive).
+     * @param column one of the numeric columns of BitmapIndex, for example BitmapIndex.PRICE
+     */
+    static ListingQuery between(String column, int min, int max)
+    {
+        return index -> index.range(column, min, max);
+    }
+
+    /**
+     * Returns a query that selects the listings whose value in the given numeric column is at least min.
+     */
+    static ListingQuery atLeast(String column, int min)
+    {
+        return between(column, min, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a query that selects the listings whose value in the given numeric column is at most max.
+     */
+    static ListingQuery atMost(String column, int max)
+    {
+        return between(column, Integer.MIN_VALUE, max);
+    }
+}
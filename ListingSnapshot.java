@@ -0,0 +1,123 @@
+import java.io.File;
+import java.net.URISyntaxException;
+
+/**
+ * The ListingSnapshot class holds the AirBnB London data set once it has been loaded from the csv file.
+ * The data set is loaded the first time it is needed and then shared, unchanged, by every PropertyMap.
+ * The rows of the data set are sorted by price, so that the listings within a price range can be found
+ * with two binary searches.
+ * After the csv file has been parsed, the sorted table is saved next to it as a binary snapshot, which
+ * later runs load instead of parsing the csv file again.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class ListingSnapshot
+{
+    private static ListingSnapshot instance;
+    private ListingTable table;
+    private ListingIndex index;
+    private PriceAggregates priceAggregates;
+    private PriceQuantiles priceQuantiles;
+    private BitmapIndex bitmapIndex;
+    private SpatialIndex spatialIndex;
+
+    /**
+     * Constructor for objects of class ListingSnapshot
+     * @param table the table of all listings, already sorted by price
+     */
+    ListingSnapshot(ListingTable table)
+    {
+        this.table = table;
+        index = new ListingIndex(table);
+        priceAggregates = new PriceAggregates(table);
+        bitmapIndex = new BitmapIndex(table);
+        spatialIndex = new SpatialIndex(table);
+    }
+
+    /**
+     * Returns the shared snapshot, loading the data set if this is the first time it is requested.
+     */
+    public static synchronized ListingSnapshot getInstance()
+    {
+        if(instance == null)
+            instance = new ListingSnapshot(loadTable());
+        return instance;
+    }
+
+    /**
+     * Returns the table of all listings in the data set, sorted by price. The table must not be modified.
+     */
+    public ListingTable getTable()
+    {
+        return table;
+    }
+
+    /**
+     * Returns the indexes over the rows of the table.
+     */
+    public ListingIndex getIndex()
+    {
+        return index;
+    }
+
+    /**
+     * Returns the running totals used to find the statistics of a price range.
+     */
+    public PriceAggregates getPriceAggregates()
+    {
+        return priceAggregates;
+    }
+
+    /**
+     * Returns the sketches used to estimate the quantiles of the prices of each neighbourhood and room type,
+     * building them the first time they are needed.
+     */
+    public synchronized PriceQuantiles getPriceQuantiles()
+    {
+        if(priceQuantiles == null)
+            priceQuantiles = new PriceQuantiles(table);
+        return priceQuantiles;
+    }
+
+    /**
+     * Returns the bitmaps used to answer queries on the attributes of the listings.
+     */
+    public BitmapIndex getBitmapIndex()
+    {
+        return bitmapIndex;
+    }
+
+    /**
+     * Returns the index used to find listings by their latitude and longitude.
+     */
+    public SpatialIndex getSpatialIndex()
+    {
+        return spatialIndex;
+    }
+
+    /**
+     * Loads the table from the binary snapshot if it is up to date, or otherwise parses the csv file
+     * and writes a new snapshot.
+     */
+    private static ListingTable loadTable()
+    {
+        AirbnbDataLoader loader = new AirbnbDataLoader(true);
+        ListingSnapshotFile snapshotFile = null;
+        try {
+            File source = loader.getFile();
+            snapshotFile = new ListingSnapshotFile(new File(source.getPath() + ".snapshot"), source);
+            ListingTable table = snapshotFile.read();
+            if(table != null)
+                return table;
+        } catch(URISyntaxException e) {
+            System.out.println("Failure! Something went wrong");
+            e.printStackTrace();
+        }
+        ListingTable table = loader.loadTable();
+        table.sortByPrice();
+        if(snapshotFile != null)
+            snapshotFile.write(table);
+        return table;
+    }
+}
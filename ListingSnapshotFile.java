@@ -0,0 +1,139 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The ListingSnapshotFile class saves a parsed ListingTable to a binary file, so that later runs of the
+ * application can memory-map that file instead of parsing the csv file again.
+ * The snapshot begins with the size, last-modified time and CRC32 checksum of the csv file it was made
+ * from, and the CRC32 checksum of the rest of the snapshot. A snapshot is only used while the csv file
+ * still matches it and its own contents match their checksum, so it is rebuilt whenever the csv file
+ * changes or the snapshot has been damaged.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class ListingSnapshotFile
+{
+    // Identifies a snapshot file, and the version of its format.
+    private static final int MAGIC = 0x4C534E50;
+    private static final int VERSION = 3;
+    // The offset in the header of the checksum of the table.
+    private static final int TABLE_CHECKSUM_OFFSET = 32;
+
+    private File snapshot;
+    private File source;
+
+    /**
+     * Constructor for objects of class ListingSnapshotFile
+     * @param snapshot the binary snapshot file
+     * @param source the csv file the snapshot is made from
+     */
+    public ListingSnapshotFile(File snapshot, File source)
+    {
+        this.snapshot = snapshot;
+        this.source = source;
+    }
+
+    /**
+     * Reads the table stored in the snapshot file.
+     * @return the table, or null if there is no snapshot, it cannot be read, or the csv file has changed
+     * since it was written
+     */
+    public ListingTable read()
+    {
+        if(!snapshot.isFile() || !source.isFile())
+            return null;
+        try(RandomAccessFile input = new RandomAccessFile(snapshot, "r");
+            FileChannel channel = input.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if(buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                return null;
+            long size = buffer.getLong();
+            long lastModified = buffer.getLong();
+            long checksum = buffer.getLong();
+            if(size != source.length())
+                return null;
+            // A file that has been copied or touched keeps its contents, so only the checksum is
+            // compared when the last-modified time is different.
+            if(lastModified != source.lastModified() && checksum != checksum(source))
+                return null;
+            long tableChecksum = buffer.getLong();
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if(crc.getValue() != tableChecksum)
+                return null;
+            return ListingTable.read(buffer);
+        } catch(IOException | RuntimeException e) {
+            // Any snapshot that cannot be decoded, for example one cut short or corrupted, is treated as
+            // out of date, and the csv file is parsed again.
+            System.err.println("Could not read listing snapshot " + snapshot + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the table to the snapshot file. The file is written under a temporary name and then renamed,
+     * so a snapshot that was only partly written is never read.
+     */
+    public void write(ListingTable table)
+    {
+        File temporary = new File(snapshot.getPath() + ".tmp");
+        try {
+            long size = source.length();
+            long lastModified = source.lastModified();
+            long checksum = checksum(source);
+            CRC32 tableChecksum = new CRC32();
+            try(FileOutputStream file = new FileOutputStream(temporary);
+                DataOutputStream output = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeLong(size);
+                output.writeLong(lastModified);
+                output.writeLong(checksum);
+                // The checksum of the table is only known once it has been written, so it is filled in after.
+                output.writeLong(0);
+                output.flush();
+                DataOutputStream tableOutput = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, tableChecksum), 1 << 16));
+                table.write(tableOutput);
+                tableOutput.flush();
+            }
+            try(RandomAccessFile output = new RandomAccessFile(temporary, "rw")) {
+                output.seek(TABLE_CHECKSUM_OFFSET);
+                output.writeLong(tableChecksum.getValue());
+            }
+            Files.move(temporary.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch(IOException e) {
+            System.err.println("Could not write listing snapshot " + snapshot + ": " + e);
+            temporary.delete();
+        }
+    }
+
+    /**
+     * Returns the CRC32 checksum of the contents of the given file.
+     */
+    private static long checksum(File file) throws IOException
+    {
+        try(RandomAccessFile input = new RandomAccessFile(file, "r");
+            FileChannel channel = input.getChannel()) {
+            CRC32 crc = new CRC32();
+            long position = 0;
+            long size = channel.size();
+            while(position < size) {
+                long length = Math.min(size - position, Integer.MAX_VALUE);
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+                position += length;
+            }
+            return crc.getValue();
+        }
+    }
+}
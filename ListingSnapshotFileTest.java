@@ -0,0 +1,121 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * The test class ListingSnapshotFileTest.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class ListingSnapshotFileTest
+{
+    // The size of the header before the table: magic number, version, the size, last-modified time and
+    // checksum of the csv file, and the checksum of the table.
+    private static final int HEADER = 40;
+
+    private File source, snapshot;
+    private ListingSnapshotFile snapshotFile;
+
+    /**
+     * Default constructor for test class ListingSnapshotFileTest
+     */
+    public ListingSnapshotFileTest()
+    {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() throws IOException
+    {
+        source = File.createTempFile("listings", ".csv");
+        Files.write(source.toPath(), "id,name\n1,Flat\n".getBytes());
+        snapshot = new File(source.getPath() + ".snapshot");
+        snapshotFile = new ListingSnapshotFile(snapshot, source);
+        ListingTable table = new ListingTable();
+        for(int i = 0; i < 100; i++)
+            table.add(Integer.toString(i), "Flat " + i, "h" + i % 7, "Host " + i % 7, i % 2 == 0 ? "Barnet" : "Camden",
+                      51.5, -0.1, "Private room", 20 + i, 1, i, "2018-01-01", 0.5, 1, 365);
+        snapshotFile.write(table);
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown()
+    {
+        source.delete();
+        snapshot.delete();
+    }
+
+    @Test
+    public void TestReadWrittenSnapshot()
+    {
+        ListingTable table = snapshotFile.read();
+        assertNotNull(table);
+        assertEquals(100, table.size());
+        assertEquals("Flat 42", table.getName(42));
+        assertEquals("Camden", table.getNeighbourhood(43));
+        assertEquals(62, table.getPrice(42));
+    }
+
+    @Test
+    public void TestTruncatedSnapshotIsStale() throws IOException
+    {
+        long length = snapshot.length();
+        for(long cut : new long[] {length - 1, length / 2, HEADER + 6, HEADER, 3}) {
+            try(RandomAccessFile file = new RandomAccessFile(snapshot, "rw")) {
+                file.setLength(cut);
+            }
+            assertNull(snapshotFile.read());
+        }
+    }
+
+    @Test
+    public void TestCorruptSnapshotIsStale() throws IOException
+    {
+        byte[] original = Files.readAllBytes(snapshot.toPath());
+        // Counts that are negative or far too large, as the first fields of the table.
+        for(int count : new int[] {-1, Integer.MAX_VALUE, 1 << 20}) {
+            for(int offset : new int[] {HEADER, HEADER + 4}) {
+                Files.write(snapshot.toPath(), original);
+                try(RandomAccessFile file = new RandomAccessFile(snapshot, "rw")) {
+                    file.seek(offset);
+                    file.writeInt(count);
+                }
+                assertNull(snapshotFile.read());
+            }
+        }
+        // Any change to the table, even to a single code or price, is found and treated as stale, so a
+        // damaged table never reaches the indexes built from it.
+        Random random = new Random(1);
+        for(int i = 0; i < 200; i++) {
+            byte[] corrupt = original.clone();
+            int changes = i % 2 == 0 ? 1 : 1 + random.nextInt(corrupt.length / 8);
+            for(int j = 0; j < changes; j++) {
+                int position = HEADER + random.nextInt(corrupt.length - HEADER);
+                corrupt[position] = (byte) (corrupt[position] ^ (1 + random.nextInt(255)));
+            }
+            Files.write(snapshot.toPath(), corrupt);
+            ListingTable table = snapshotFile.read();
+            if(table != null)
+                new ListingSnapshot(table);
+            assertNull(table);
+        }
+        Files.write(snapshot.toPath(), original);
+        new ListingSnapshot(snapshotFile.read());
+    }
+}
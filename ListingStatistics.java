@@ -0,0 +1,385 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * The ListingStatistics class calculates the statistics shown in the statistics panel in a single pass
+ * over a set of listings. Only totals are kept, not the listings themselves: counts, sums and sums of
+ * squares of prices, totals for each room type, and totals for each neighbourhood.
+ * Listings can be added one at a time, for example while they are streamed from the csv file, or as a
+ * range of rows of a ListingTable. Statistics calculated for separate sets of listings can be merged,
+ * and the statistics of a subset of listings can be subtracted.
+ * Large ranges of rows are split between the threads of a ForkJoinPool. All of the totals are whole
+ * numbers, so the result does not depend on how the rows were split.
+ * The statistics are rounded in the same way as the corresponding methods of PropertyMap.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class ListingStatistics implements Consumer<AirbnbListing>
+{
+    // The room types that have their own statistics.
+    private static final int OTHER_ROOM = 0, ENTIRE_HOME = 1, SHARED_ROOM = 2, PRIVATE_ROOM = 3;
+    // Ranges with fewer rows than this are added on a single thread.
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    private int numberOfListings;
+    private long totalReviews;
+    private long totalPrice;
+    private long totalPriceSquared;
+    private int numberOfEntireHomes;
+    private int numberOfSharedRooms, numberOfPrivateRooms;
+    private long totalPriceSharedRooms, totalPricePrivateRooms;
+    // For each neighbourhood code: the number of listings, and the sum of each listing's price times its
+    // minimum nights.
+    private StringDictionary neighbourhoods;
+    private int[] neighbourhoodListings;
+    private long[] neighbourhoodTotals;
+
+    /**
+     * Constructor for objects of class ListingStatistics, with no listings.
+     */
+    public ListingStatistics()
+    {
+        this(new StringDictionary());
+    }
+
+    /**
+     * Constructor for objects of class ListingStatistics, with no listings, whose neighbourhood totals are
+     * indexed by the codes of the given dictionary.
+     */
+    public ListingStatistics(StringDictionary neighbourhoods)
+    {
+        this.neighbourhoods = neighbourhoods;
+        neighbourhoodListings = new int[Math.max(neighbourhoods.size(), 16)];
+        neighbourhoodTotals = new long[neighbourhoodListings.length];
+    }
+
+    /**
+     * Calculates the statistics of the rows from fromRow (inclusive) to toRow (exclusive) of the table.
+     * Large ranges are calculated in parallel on the common ForkJoinPool.
+     */
+    public static ListingStatistics calculate(ListingTable table, int fromRow, int toRow)
+    {
+        if(toRow - fromRow < PARALLEL_THRESHOLD) {
+            ListingStatistics statistics = new ListingStatistics(table.getNeighbourhoods());
+            statistics.addRows(table, fromRow, toRow);
+            return statistics;
+        }
+        return calculate(table, fromRow, toRow, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Calculates the statistics of the rows from fromRow (inclusive) to toRow (exclusive) of the table,
+     * splitting the rows between the threads of the given pool.
+     */
+    public static ListingStatistics calculate(ListingTable table, int fromRow, int toRow, ForkJoinPool pool)
+    {
+        return pool.invoke(new CalculateTask(table, fromRow, toRow));
+    }
+
+    /**
+     * Calculates the statistics of the rows of the table whose bits are set in the given bitmap.
+     */
+    public static ListingStatistics calculate(ListingTable table, BitSet rows)
+    {
+        ListingStatistics statistics = new ListingStatistics(table.getNeighbourhoods());
+        statistics.addRows(table, rows);
+        return statistics;
+    }
+
+    /**
+     * Adds the rows of the table whose bits are set in the given bitmap to the statistics.
+     * The statistics must use the table's neighbourhood dictionary.
+     */
+    public void addRows(ListingTable table, BitSet rows)
+    {
+        int[] roomTypes = roomTypes(table);
+        for(int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            add(table.getPrice(row), table.getNumberOfReviews(row), table.getMinimumNights(row),
+                table.getNeighbourhoodCode(row), roomTypes[table.getRoomTypeCode(row)]);
+        }
+    }
+
+    /**
+     * Adds the rows from fromRow (inclusive) to toRow (exclusive) of the table to the statistics.
+     * The statistics must use the table's neighbourhood dictionary.
+     */
+    public void addRows(ListingTable table, int fromRow, int toRow)
+    {
+        int[] roomTypes = roomTypes(table);
+        for(int row = fromRow; row < toRow; row++) {
+            add(table.getPrice(row), table.getNumberOfReviews(row), table.getMinimumNights(row),
+                table.getNeighbourhoodCode(row), roomTypes[table.getRoomTypeCode(row)]);
+        }
+    }
+
+    /**
+     * Adds a listing to the statistics.
+     */
+    public void accept(AirbnbListing listing)
+    {
+        String roomType = listing.getRoom_type();
+        int kind = OTHER_ROOM;
+        if(roomType.equals("Entire home/apt"))
+            kind = ENTIRE_HOME;
+        else if(roomType.equals("Shared room"))
+            kind = SHARED_ROOM;
+        else if(roomType.equals("Private room"))
+            kind = PRIVATE_ROOM;
+        add(listing.getPrice(), listing.getNumberOfReviews(), listing.getMinimumNights(),
+            neighbourhoods.encode(listing.getNeighbourhood()), kind);
+    }
+
+    /**
+     * Adds the totals of other statistics to these statistics.
+     */
+    public void merge(ListingStatistics other)
+    {
+        numberOfListings += other.numberOfListings;
+        totalReviews += other.totalReviews;
+        totalPrice += other.totalPrice;
+        totalPriceSquared += other.totalPriceSquared;
+        numberOfEntireHomes += other.numberOfEntireHomes;
+        numberOfSharedRooms += other.numberOfSharedRooms;
+        numberOfPrivateRooms += other.numberOfPrivateRooms;
+        totalPriceSharedRooms += other.totalPriceSharedRooms;
+        totalPricePrivateRooms += other.totalPricePrivateRooms;
+        for(int code = 0; code < Math.min(other.neighbourhoods.size(), other.neighbourhoodListings.length); code++) {
+            int ownCode = other.neighbourhoods == neighbourhoods ? code : neighbourhoods.encode(other.neighbourhoods.get(code));
+            ensureNeighbourhood(ownCode);
+            neighbourhoodListings[ownCode] += other.neighbourhoodListings[code];
+            neighbourhoodTotals[ownCode] += other.neighbourhoodTotals[code];
+        }
+    }
+
+    /**
+     * Removes the totals of other statistics, which must cover a subset of these listings, from these statistics.
+     */
+    public void subtract(ListingStatistics other)
+    {
+        numberOfListings -= other.numberOfListings;
+        totalReviews -= other.totalReviews;
+        totalPrice -= other.totalPrice;
+        totalPriceSquared -= other.totalPriceSquared;
+        numberOfEntireHomes -= other.numberOfEntireHomes;
+        numberOfSharedRooms -= other.numberOfSharedRooms;
+        numberOfPrivateRooms -= other.numberOfPrivateRooms;
+        totalPriceSharedRooms -= other.totalPriceSharedRooms;
+        totalPricePrivateRooms -= other.totalPricePrivateRooms;
+        for(int code = 0; code < Math.min(other.neighbourhoods.size(), other.neighbourhoodListings.length); code++) {
+            int ownCode = other.neighbourhoods == neighbourhoods ? code : neighbourhoods.encode(other.neighbourhoods.get(code));
+            ensureNeighbourhood(ownCode);
+            neighbourhoodListings[ownCode] -= other.neighbourhoodListings[code];
+            neighbourhoodTotals[ownCode] -= other.neighbourhoodTotals[code];
+        }
+    }
+
+    /**
+     * Returns a copy of these statistics.
+     */
+    public ListingStatistics copy()
+    {
+        ListingStatistics copy = new ListingStatistics(neighbourhoods);
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Returns the average number of reviews of the listings.
+     */
+    public int getAverageNumberOfReviews()
+    {
+        return average(totalReviews, numberOfListings);
+    }
+
+    /**
+     * Returns the total number of listings.
+     */
+    public int getTotalNumberOfListings()
+    {
+        return numberOfListings;
+    }
+
+    /**
+     * Returns the number of listings in the given neighbourhood.
+     */
+    public int getNumberOfListings(String neighbourhood)
+    {
+        return getNumberOfListings(neighbourhoods.codeOf(neighbourhood));
+    }
+
+    /**
+     * Returns the number of listings in the neighbourhood with the given code in the neighbourhood dictionary.
+     */
+    public int getNumberOfListings(int neighbourhoodCode)
+    {
+        if(neighbourhoodCode < 0 || neighbourhoodCode >= neighbourhoodListings.length)
+            return 0;
+        return neighbourhoodListings[neighbourhoodCode];
+    }
+
+    /**
+     * Returns the total number of listings which have the type "Entire home/apt"
+     */
+    public int getNumberOfEntireHomesAndApartments()
+    {
+        return numberOfEntireHomes;
+    }
+
+    /**
+     * Returns the neighbourhood with the highest average of price times minimum nights.
+     * If several neighbourhoods have the same average, the one with the lowest code is returned.
+     */
+    public String getPriciestNeighbourhood()
+    {
+        long greatest = 0;
+        String priciestNeighbourhood = "";
+        for(int code = 0; code < Math.min(neighbourhoods.size(), neighbourhoodListings.length); code++) {
+            if(neighbourhoodListings[code] > 0 && neighbourhoodTotals[code] / neighbourhoodListings[code] > greatest) {
+                greatest = neighbourhoodTotals[code] / neighbourhoodListings[code];
+                priciestNeighbourhood = neighbourhoods.get(code);
+            }
+        }
+        return priciestNeighbourhood;
+    }
+
+    /**
+     * Returns the standard deviation of the prices of the listings.
+     */
+    public int getStandardDeviation()
+    {
+        if(numberOfListings == 0)
+            return 0;
+        // As in PropertyMap, the deviations are measured from the average price rounded down.
+        // Every term is then a whole number, so the sum of squares can be found exactly from the totals.
+        long averagePrice = totalPrice / numberOfListings;
+        long sum = totalPriceSquared - 2 * averagePrice * totalPrice + numberOfListings * averagePrice * averagePrice;
+        return (int) Math.round(Math.sqrt((double) sum / numberOfListings));
+    }
+
+    /**
+     * Returns the average price of the listings.
+     */
+    public int getAveragePrice()
+    {
+        return average(totalPrice, numberOfListings);
+    }
+
+    /**
+     * Returns the average price of the shared rooms.
+     */
+    public int getAveragePriceSharedRoom()
+    {
+        return average(totalPriceSharedRooms, numberOfSharedRooms);
+    }
+
+    /**
+     * Returns the average price of the private rooms.
+     */
+    public int getAveragePricePrivateRoom()
+    {
+        return average(totalPricePrivateRooms, numberOfPrivateRooms);
+    }
+
+    /**
+     * Adds one listing to the totals.
+     * @param kind one of OTHER_ROOM, ENTIRE_HOME, SHARED_ROOM and PRIVATE_ROOM
+     */
+    private void add(int price, int numberOfReviews, int minimumNights, int neighbourhood, int kind)
+    {
+        numberOfListings++;
+        totalReviews += numberOfReviews;
+        totalPrice += price;
+        totalPriceSquared += (long) price * price;
+        if(kind == ENTIRE_HOME) {
+            numberOfEntireHomes++;
+        } else if(kind == SHARED_ROOM) {
+            numberOfSharedRooms++;
+            totalPriceSharedRooms += price;
+        } else if(kind == PRIVATE_ROOM) {
+            numberOfPrivateRooms++;
+            totalPricePrivateRooms += price;
+        }
+        ensureNeighbourhood(neighbourhood);
+        neighbourhoodListings[neighbourhood]++;
+        neighbourhoodTotals[neighbourhood] += (long) price * minimumNights;
+    }
+
+    /**
+     * Makes sure the neighbourhood arrays have room for the given code.
+     */
+    private void ensureNeighbourhood(int code)
+    {
+        if(code >= neighbourhoodListings.length) {
+            int length = Math.max(code + 1, neighbourhoodListings.length * 2);
+            neighbourhoodListings = Arrays.copyOf(neighbourhoodListings, length);
+            neighbourhoodTotals = Arrays.copyOf(neighbourhoodTotals, length);
+        }
+    }
+
+    /**
+     * Returns, for each room type code of the table, which of the room types with their own statistics it is.
+     */
+    private static int[] roomTypes(ListingTable table)
+    {
+        StringDictionary roomTypes = table.getRoomTypes();
+        int[] kinds = new int[roomTypes.size()];
+        for(int code = 0; code < kinds.length; code++) {
+            String roomType = roomTypes.get(code);
+            if(roomType.equals("Entire home/apt"))
+                kinds[code] = ENTIRE_HOME;
+            else if(roomType.equals("Shared room"))
+                kinds[code] = SHARED_ROOM;
+            else if(roomType.equals("Private room"))
+                kinds[code] = PRIVATE_ROOM;
+        }
+        return kinds;
+    }
+
+    /**
+     * Returns total/count rounded down, or 0 if count is 0.
+     */
+    private int average(long total, int count)
+    {
+        if(count == 0)
+            return 0;
+        return (int) (total / count);
+    }
+
+    /**
+     * Calculates the statistics of a range of rows by splitting it in half until the parts are smaller
+     * than PARALLEL_THRESHOLD, and merging the statistics of the parts.
+     */
+    private static class CalculateTask extends RecursiveTask<ListingStatistics>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private ListingTable table;
+        private int fromRow, toRow;
+
+        CalculateTask(ListingTable table, int fromRow, int toRow)
+        {
+            this.table = table;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        protected ListingStatistics compute()
+        {
+            if(toRow - fromRow < PARALLEL_THRESHOLD) {
+                ListingStatistics statistics = new ListingStatistics(table.getNeighbourhoods());
+                statistics.addRows(table, fromRow, toRow);
+                return statistics;
+            }
+            int middle = (fromRow + toRow) >>> 1;
+            CalculateTask second = new CalculateTask(table, middle, toRow);
+            second.fork();
+            ListingStatistics statistics = new CalculateTask(table, fromRow, middle).compute();
+            statistics.merge(second.join());
+            return statistics;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The test class ListingStatisticsTest. Statistics calculated in parallel over ranges large enough to be
+ * split between threads are checked against the same rows added one at a time on a single thread.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class ListingStatisticsTest
+{
+    private static final String[] NEIGHBOURHOODS = {"Barnet", "Camden", "Hackney", "Merton", "Kensington and Chelsea"};
+    private static final String[] ROOM_TYPES = {"Entire home/apt", "Private room", "Shared room", "Hotel room"};
+
+    private ListingTable table;
+
+    /**
+     * Default constructor for test class ListingStatisticsTest
+     */
+    public ListingStatisticsTest()
+    {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp()
+    {
+        table = new ListingTable();
+        Random random = new Random(1);
+        for(int row = 0; row < 300000; row++) {
+            table.add(Integer.toString(row), "Flat", "h", "Host", NEIGHBOURHOODS[random.nextInt(NEIGHBOURHOODS.length)],
+                      51.5, -0.1, ROOM_TYPES[random.nextInt(ROOM_TYPES.length)], random.nextInt(2000),
+                      1 + random.nextInt(30), random.nextInt(400), "", -1, 1, 365);
+        }
+    }
+
+    @Test
+    public void TestParallelMatchesSequential()
+    {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        int[][] ranges = {{0, table.size()}, {1, table.size() - 1}, {12345, 212345}, {70000, 70000 + (1 << 16) + 1}};
+        for(int[] range : ranges) {
+            ListingStatistics sequential = new ListingStatistics(table.getNeighbourhoods());
+            sequential.addRows(table, range[0], range[1]);
+            assertSameStatistics(sequential, ListingStatistics.calculate(table, range[0], range[1], pool));
+            assertSameStatistics(sequential, ListingStatistics.calculate(table, range[0], range[1]));
+        }
+        pool.shutdown();
+    }
+
+    /**
+     * Checks that two sets of statistics give the same value for every statistic.
+     */
+    private static void assertSameStatistics(ListingStatistics expected, ListingStatistics actual)
+    {
+        assertEquals(expected.getTotalNumberOfListings(), actual.getTotalNumberOfListings());
+        assertEquals(expected.getAverageNumberOfReviews(), actual.getAverageNumberOfReviews());
+        assertEquals(expected.getNumberOfEntireHomesAndApartments(), actual.getNumberOfEntireHomesAndApartments());
+        assertEquals(expected.getPriciestNeighbourhood(), actual.getPriciestNeighbourhood());
+        assertEquals(expected.getStandardDeviation(), actual.getStandardDeviation());
+        assertEquals(expected.getAveragePrice(), actual.getAveragePrice());
+        assertEquals(expected.getAveragePriceSharedRoom(), actual.getAveragePriceSharedRoom());
+        assertEquals(expected.getAveragePricePrivateRoom(), actual.getAveragePricePrivateRoom());
+        for(String neighbourhood : NEIGHBOURHOODS)
+            assertEquals(expected.getNumberOfListings(neighbourhood), actual.getNumberOfListings(neighbourhood));
+    }
+}
@@ -0,0 +1,521 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The ListingTable class stores the AirBnB London data set column by column. Each column of the csv
+ * file is kept in its own array, with numbers stored as primitives, so that statistics can be
+ * calculated by scanning a few arrays instead of visiting one object per listing.
+ * The rows of the table are sorted by price, so the listings within a price range are a contiguous
+ * range of rows. Individual rows can still be read as AirbnbListing objects using getListing().
+ * The host, neighbourhood and room type columns repeat a small number of values, so they are stored
+ * as codes from a StringDictionary, and rows can be compared by code instead of with String.equals.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class ListingTable
+{
+    private int size;
+    private String[] id;
+    private String[] name;
+    private int[] hostId;
+    private int[] hostName;
+    private int[] neighbourhood;
+    private double[] latitude;
+    private double[] longitude;
+    private int[] roomType;
+    // Sorted in ascending order, as the rows of the table are sorted by price.
+    private int[] price;
+    private int[] minimumNights;
+    private int[] numberOfReviews;
+    private String[] lastReview;
+    private double[] reviewsPerMonth;
+    private int[] calculatedHostListingsCount;
+    private int[] availability365;
+    // The dictionaries of the codes stored in the host, neighbourhood and room type columns.
+    private StringDictionary hostIds;
+    private StringDictionary hostNames;
+    private StringDictionary neighbourhoods;
+    private StringDictionary roomTypes;
+
+    /**
+     * Constructor for objects of class ListingTable. Rows are added with add() and the table
+     * is then sorted by price with sortByPrice().
+     */
+    public ListingTable()
+    {
+        this(1024);
+    }
+
+    /**
+     * Constructor for objects of class ListingTable, with room for the given number of rows.
+     */
+    public ListingTable(int capacity)
+    {
+        capacity = Math.max(capacity, 16);
+        id = new String[capacity];
+        name = new String[capacity];
+        hostId = new int[capacity];
+        hostName = new int[capacity];
+        neighbourhood = new int[capacity];
+        latitude = new double[capacity];
+        longitude = new double[capacity];
+        roomType = new int[capacity];
+        price = new int[capacity];
+        minimumNights = new int[capacity];
+        numberOfReviews = new int[capacity];
+        lastReview = new String[capacity];
+        reviewsPerMonth = new double[capacity];
+        calculatedHostListingsCount = new int[capacity];
+        availability365 = new int[capacity];
+        hostIds = new StringDictionary();
+        hostNames = new StringDictionary();
+        neighbourhoods = new StringDictionary();
+        roomTypes = new StringDictionary();
+    }
+
+    /**
+     * Adds one row to the end of the table.
+     */
+    public void add(String id, String name, String hostId, String hostName, String neighbourhood,
+                    double latitude, double longitude, String roomType, int price, int minimumNights,
+                    int numberOfReviews, String lastReview, double reviewsPerMonth,
+                    int calculatedHostListingsCount, int availability365)
+    {
+        if(size == this.price.length)
+            resize(size * 2);
+        this.id[size] = id;
+        this.name[size] = name;
+        this.hostId[size] = hostIds.encode(hostId);
+        this.hostName[size] = hostNames.encode(hostName);
+        this.neighbourhood[size] = neighbourhoods.encode(neighbourhood);
+        this.latitude[size] = latitude;
+        this.longitude[size] = longitude;
+        this.roomType[size] = roomTypes.encode(roomType);
+        this.price[size] = price;
+        this.minimumNights[size] = minimumNights;
+        this.numberOfReviews[size] = numberOfReviews;
+        this.lastReview[size] = lastReview;
+        this.reviewsPerMonth[size] = reviewsPerMonth;
+        this.calculatedHostListingsCount[size] = calculatedHostListingsCount;
+        this.availability365[size] = availability365;
+        size++;
+    }
+
+    /**
+     * Adds all of the rows of another table to the end of this table.
+     */
+    public void addAll(ListingTable other)
+    {
+        if(size + other.size > price.length)
+            resize(Math.max(size + other.size, size * 2));
+        System.arraycopy(other.id, 0, id, size, other.size);
+        System.arraycopy(other.name, 0, name, size, other.size);
+        copyCodes(other.hostId, other.hostIds, hostId, hostIds, other.size);
+        copyCodes(other.hostName, other.hostNames, hostName, hostNames, other.size);
+        copyCodes(other.neighbourhood, other.neighbourhoods, neighbourhood, neighbourhoods, other.size);
+        System.arraycopy(other.latitude, 0, latitude, size, other.size);
+        System.arraycopy(other.longitude, 0, longitude, size, other.size);
+        copyCodes(other.roomType, other.roomTypes, roomType, roomTypes, other.size);
+        System.arraycopy(other.price, 0, price, size, other.size);
+        System.arraycopy(other.minimumNights, 0, minimumNights, size, other.size);
+        System.arraycopy(other.numberOfReviews, 0, numberOfReviews, size, other.size);
+        System.arraycopy(other.lastReview, 0, lastReview, size, other.size);
+        System.arraycopy(other.reviewsPerMonth, 0, reviewsPerMonth, size, other.size);
+        System.arraycopy(other.calculatedHostListingsCount, 0, calculatedHostListingsCount, size, other.size);
+        System.arraycopy(other.availability365, 0, availability365, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Sorts the rows of the table by price. The sort is stable, so rows with the same price
+     * keep the order in which they were added.
+     */
+    public void sortByPrice()
+    {
+        // Each key holds the price in the upper 32 bits and the row number in the lower 32 bits,
+        // so sorting the keys sorts by price and then by row number.
+        long[] keys = new long[size];
+        for(int row = 0; row < size; row++)
+            keys[row] = ((long) price[row] << 32) | row;
+        Arrays.sort(keys);
+        int[] order = new int[size];
+        for(int i = 0; i < size; i++)
+            order[i] = (int) keys[i];
+
+        id = permute(id, order);
+        name = permute(name, order);
+        hostId = permute(hostId, order);
+        hostName = permute(hostName, order);
+        neighbourhood = permute(neighbourhood, order);
+        latitude = permute(latitude, order);
+        longitude = permute(longitude, order);
+        roomType = permute(roomType, order);
+        price = permute(price, order);
+        minimumNights = permute(minimumNights, order);
+        numberOfReviews = permute(numberOfReviews, order);
+        lastReview = permute(lastReview, order);
+        reviewsPerMonth = permute(reviewsPerMonth, order);
+        calculatedHostListingsCount = permute(calculatedHostListingsCount, order);
+        availability365 = permute(availability365, order);
+    }
+
+    /**
+     * Returns the number of rows in the table.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the first row whose price is at least the given price, or greater than the given
+     * price if above is true. Only valid once the table has been sorted by price.
+     */
+    public int firstRowWithPrice(int price, boolean above)
+    {
+        int low = 0;
+        int high = size;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(this.price[middle] < price || (above && this.price[middle] == price))
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Returns the given row as an AirbnbListing.
+     */
+    public AirbnbListing getListing(int row)
+    {
+        return new AirbnbListing(id[row], name[row], getHostId(row), getHostName(row), getNeighbourhood(row),
+            latitude[row], longitude[row], getRoomType(row), price[row], minimumNights[row],
+            numberOfReviews[row], lastReview[row], reviewsPerMonth[row],
+            calculatedHostListingsCount[row], availability365[row]);
+    }
+
+    public String getId(int row)
+    {
+        return id[row];
+    }
+
+    public String getName(int row)
+    {
+        return name[row];
+    }
+
+    public String getHostId(int row)
+    {
+        return hostIds.get(hostId[row]);
+    }
+
+    public int getHostIdCode(int row)
+    {
+        return hostId[row];
+    }
+
+    /**
+     * Returns the dictionary of the codes stored in the host id column.
+     */
+    public StringDictionary getHostIds()
+    {
+        return hostIds;
+    }
+
+    public String getHostName(int row)
+    {
+        return hostNames.get(hostName[row]);
+    }
+
+    public int getHostNameCode(int row)
+    {
+        return hostName[row];
+    }
+
+    /**
+     * Returns the dictionary of the codes stored in the host name column.
+     */
+    public StringDictionary getHostNames()
+    {
+        return hostNames;
+    }
+
+    public String getNeighbourhood(int row)
+    {
+        return neighbourhoods.get(neighbourhood[row]);
+    }
+
+    public int getNeighbourhoodCode(int row)
+    {
+        return neighbourhood[row];
+    }
+
+    /**
+     * Returns the dictionary of the codes stored in the neighbourhood column.
+     */
+    public StringDictionary getNeighbourhoods()
+    {
+        return neighbourhoods;
+    }
+
+    public double getLatitude(int row)
+    {
+        return latitude[row];
+    }
+
+    public double getLongitude(int row)
+    {
+        return longitude[row];
+    }
+
+    public String getRoomType(int row)
+    {
+        return roomTypes.get(roomType[row]);
+    }
+
+    public int getRoomTypeCode(int row)
+    {
+        return roomType[row];
+    }
+
+    /**
+     * Returns the dictionary of the codes stored in the room type column.
+     */
+    public StringDictionary getRoomTypes()
+    {
+        return roomTypes;
+    }
+
+    public int getPrice(int row)
+    {
+        return price[row];
+    }
+
+    public int getMinimumNights(int row)
+    {
+        return minimumNights[row];
+    }
+
+    public int getNumberOfReviews(int row)
+    {
+        return numberOfReviews[row];
+    }
+
+    public String getLastReview(int row)
+    {
+        return lastReview[row];
+    }
+
+    public double getReviewsPerMonth(int row)
+    {
+        return reviewsPerMonth[row];
+    }
+
+    public int getCalculatedHostListingsCount(int row)
+    {
+        return calculatedHostListingsCount[row];
+    }
+
+    public int getAvailability365(int row)
+    {
+        return availability365[row];
+    }
+
+    /**
+     * Writes the table in a compact binary form that can be read back with read().
+     * Every distinct String is written once to a dictionary, and the text columns are written as
+     * indexes into that dictionary. The coded columns are written as the dictionary indexes of their
+     * codes' Strings followed by the codes themselves. All other columns are written as fixed-width numbers.
+     */
+    public void write(DataOutputStream output) throws IOException
+    {
+        String[][] textColumns = {id, name, lastReview};
+        StringDictionary[] codedColumns = {hostIds, hostNames, neighbourhoods, roomTypes};
+        StringDictionary strings = new StringDictionary();
+        int[][] references = new int[textColumns.length][size];
+        for(int column = 0; column < textColumns.length; column++) {
+            for(int row = 0; row < size; row++)
+                references[column][row] = strings.encode(textColumns[column][row]);
+        }
+        int[][] codeReferences = new int[codedColumns.length][];
+        for(int column = 0; column < codedColumns.length; column++) {
+            codeReferences[column] = new int[codedColumns[column].size()];
+            for(int code = 0; code < codeReferences[column].length; code++)
+                codeReferences[column][code] = strings.encode(codedColumns[column].get(code));
+        }
+
+        output.writeInt(size);
+        output.writeInt(strings.size());
+        for(int index = 0; index < strings.size(); index++) {
+            byte[] bytes = strings.get(index).getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+        for(int[] column : references)
+            writeColumn(output, column);
+        for(int[] column : codeReferences) {
+            output.writeInt(column.length);
+            for(int reference : column)
+                output.writeInt(reference);
+        }
+        for(int[] column : new int[][] {hostId, hostName, neighbourhood, roomType, price, minimumNights, numberOfReviews, calculatedHostListingsCount, availability365})
+            writeColumn(output, column);
+        for(double[] column : new double[][] {latitude, longitude, reviewsPerMonth})
+            writeColumn(output, column);
+    }
+
+    /**
+     * Reads a table that was written by write(), starting at the current position of the buffer.
+     * @throws RuntimeException if the buffer does not hold a table written by write(), for example an
+     *                          IllegalArgumentException or an ArrayIndexOutOfBoundsException
+     */
+    public static ListingTable read(ByteBuffer input)
+    {
+        // Each row and each string takes at least four bytes, so larger counts can only come from a corrupt
+        // buffer, and are rejected before arrays of that size are allocated.
+        int size = checkCount(input, input.getInt());
+        String[] strings = new String[checkCount(input, input.getInt())];
+        byte[] bytes = new byte[256];
+        for(int i = 0; i < strings.length; i++) {
+            int length = input.getInt();
+            if(length < 0 || length > input.remaining())
+                throw new IllegalArgumentException("Corrupt listing table: string of " + length + " bytes");
+            if(length > bytes.length)
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            input.get(bytes, 0, length);
+            strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        ListingTable table = new ListingTable(size);
+        table.size = size;
+        table.id = readTextColumn(input, strings, size);
+        table.name = readTextColumn(input, strings, size);
+        table.lastReview = readTextColumn(input, strings, size);
+        for(StringDictionary dictionary : new StringDictionary[] {table.hostIds, table.hostNames, table.neighbourhoods, table.roomTypes}) {
+            int codes = input.getInt();
+            for(int code = 0; code < codes; code++)
+                dictionary.encode(strings[input.getInt()]);
+        }
+        table.hostId = readIntColumn(input, size);
+        table.hostName = readIntColumn(input, size);
+        table.neighbourhood = readIntColumn(input, size);
+        table.roomType = readIntColumn(input, size);
+        table.price = readIntColumn(input, size);
+        table.minimumNights = readIntColumn(input, size);
+        table.numberOfReviews = readIntColumn(input, size);
+        table.calculatedHostListingsCount = readIntColumn(input, size);
+        table.availability365 = readIntColumn(input, size);
+        table.latitude = readDoubleColumn(input, size);
+        table.longitude = readDoubleColumn(input, size);
+        table.reviewsPerMonth = readDoubleColumn(input, size);
+        return table;
+    }
+
+    private void writeColumn(DataOutputStream output, int[] column) throws IOException
+    {
+        for(int row = 0; row < size; row++)
+            output.writeInt(column[row]);
+    }
+
+    private void writeColumn(DataOutputStream output, double[] column) throws IOException
+    {
+        for(int row = 0; row < size; row++)
+            output.writeDouble(column[row]);
+    }
+
+    private static String[] readTextColumn(ByteBuffer input, String[] strings, int size)
+    {
+        int[] references = readIntColumn(input, size);
+        String[] column = new String[Math.max(size, 16)];
+        for(int row = 0; row < size; row++)
+            column[row] = strings[references[row]];
+        return column;
+    }
+
+    private static int checkCount(ByteBuffer input, int count)
+    {
+        if(count < 0 || count > input.remaining() / Integer.BYTES)
+            throw new IllegalArgumentException("Corrupt listing table: count of " + count);
+        return count;
+    }
+
+    private static int[] readIntColumn(ByteBuffer input, int size)
+    {
+        int[] column = new int[Math.max(size, 16)];
+        input.asIntBuffer().get(column, 0, size);
+        input.position(input.position() + size * Integer.BYTES);
+        return column;
+    }
+
+    private static double[] readDoubleColumn(ByteBuffer input, int size)
+    {
+        double[] column = new double[Math.max(size, 16)];
+        input.asDoubleBuffer().get(column, 0, size);
+        input.position(input.position() + size * Double.BYTES);
+        return column;
+    }
+
+    /**
+     * Changes the capacity of every column to the given number of rows.
+     */
+    private void resize(int capacity)
+    {
+        id = Arrays.copyOf(id, capacity);
+        name = Arrays.copyOf(name, capacity);
+        hostId = Arrays.copyOf(hostId, capacity);
+        hostName = Arrays.copyOf(hostName, capacity);
+        neighbourhood = Arrays.copyOf(neighbourhood, capacity);
+        latitude = Arrays.copyOf(latitude, capacity);
+        longitude = Arrays.copyOf(longitude, capacity);
+        roomType = Arrays.copyOf(roomType, capacity);
+        price = Arrays.copyOf(price, capacity);
+        minimumNights = Arrays.copyOf(minimumNights, capacity);
+        numberOfReviews = Arrays.copyOf(numberOfReviews, capacity);
+        lastReview = Arrays.copyOf(lastReview, capacity);
+        reviewsPerMonth = Arrays.copyOf(reviewsPerMonth, capacity);
+        calculatedHostListingsCount = Arrays.copyOf(calculatedHostListingsCount, capacity);
+        availability365 = Arrays.copyOf(availability365, capacity);
+    }
+
+    /**
+     * Copies codes from a column of another table, converting them to codes of this table's dictionary.
+     */
+    private void copyCodes(int[] from, StringDictionary fromDictionary, int[] to, StringDictionary toDictionary, int count)
+    {
+        int[] codes = new int[fromDictionary.size()];
+        for(int code = 0; code < codes.length; code++)
+            codes[code] = toDictionary.encode(fromDictionary.get(code));
+        for(int row = 0; row < count; row++)
+            to[size + row] = codes[from[row]];
+    }
+
+    private String[] permute(String[] column, int[] order)
+    {
+        String[] permuted = new String[column.length];
+        for(int i = 0; i < size; i++)
+            permuted[i] = column[order[i]];
+        return permuted;
+    }
+
+    private int[] permute(int[] column, int[] order)
+    {
+        int[] permuted = new int[column.length];
+        for(int i = 0; i < size; i++)
+            permuted[i] = column[order[i]];
+        return permuted;
+    }
+
+    private double[] permute(double[] column, int[] order)
+    {
+        double[] permuted = new double[column.length];
+        for(int i = 0; i < size; i++)
+            permuted[i] = column[order[i]];
+        return permuted;
+    }
+}
@@ -52,6 +52,14 @@ public class Marker
         numberOfListings++;
     }
     
+    /**
+     * Increase the number of listings by the given number.
+     */
+    public void addListings(int number)
+    {
+        numberOfListings += number;
+    }
+    
     public int getNumberOfListings()
     {
         return numberOfListings;
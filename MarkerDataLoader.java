@@ -31,8 +31,8 @@ public class MarkerDataLoader
             reader.readNext();
             while ((line = reader.readNext()) != null) {
                 String neighbourhood = line[0];
-                int xposition = convertInt(line[1]);
-                int yposition = convertInt(line[2]);
+                int xposition = FieldParser.parseInt(line[1]);
+                int yposition = FieldParser.parseInt(line[2]);
 
                 Marker marker = new Marker(neighbourhood, xposition, yposition);
                 markerPositions.put(neighbourhood, marker);
@@ -44,11 +44,4 @@ public class MarkerDataLoader
         //System.out.println("Success! Number of loaded records: " + listings.size());
         return markerPositions;
     }
-    
-    private Integer convertInt(String intString){
-        if(intString != null && !intString.trim().equals("")){
-            return Integer.parseInt(intString);
-        }
-        return -1;
-    }
 }
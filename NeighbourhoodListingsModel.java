@@ -0,0 +1,84 @@
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * The NeighbourhoodListingsModel class is the table model of the list of properties shown when a
+ * neighbourhood is clicked on the map. It holds only the rows of the listings, in the order in which
+ * they are shown, and reads each cell from the ListingTable when the JTable paints it, so only the
+ * listings that are visible are ever read. Sorting the list replaces the order of the rows.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class NeighbourhoodListingsModel extends AbstractTableModel
+{
+    private static final long serialVersionUID = 1L;
+    private static final String[] COLUMN_NAMES = {"Host", "Price", "No. Reviews", "Min. Nights", "Avg. Rating"};
+
+    private ListingTable table;
+    private int[] rows;
+    private RatingAggregates ratings;
+
+    /**
+     * Constructor for objects of class NeighbourhoodListingsModel
+     * @param rows the rows of the table to show, in the order in which they are shown
+     * @param ratings the ratings of the properties, from the reviews written in this application
+     */
+    public NeighbourhoodListingsModel(ListingTable table, int[] rows, RatingAggregates ratings)
+    {
+        this.table = table;
+        this.rows = rows;
+        this.ratings = ratings;
+    }
+
+    /**
+     * Shows the given rows of the table instead, in the order given.
+     */
+    public void setRows(int[] rows)
+    {
+        this.rows = rows;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Returns the listing shown at the given position of the list.
+     */
+    public AirbnbListing getListing(int position)
+    {
+        return table.getListing(rows[position]);
+    }
+
+    public int getRowCount()
+    {
+        return rows.length;
+    }
+
+    public int getColumnCount()
+    {
+        return COLUMN_NAMES.length;
+    }
+
+    public String getColumnName(int column)
+    {
+        return COLUMN_NAMES[column];
+    }
+
+    public Object getValueAt(int position, int column)
+    {
+        int row = rows[position];
+        switch(column) {
+            case 0:
+                return table.getHostName(row);
+            case 1:
+                return "£" + table.getPrice(row);
+            case 2:
+                return table.getNumberOfReviews(row);
+            case 3:
+                return table.getMinimumNights(row);
+            default:
+                String id = table.getId(row);
+                if(ratings.getCount(id) == 0)
+                    return "";
+                return String.format("%.1f (%d)", ratings.getAverage(id), ratings.getCount(id));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import java.util.PriorityQueue;
+
+/**
+ * The OrderedRows class holds the rows of a neighbourhood in an order other than by price, such as by
+ * number of reviews, so that the first rows in that order within a price range can be found without
+ * visiting the rest of the neighbourhood.
+ * As the rows of the table are sorted by price, a price range is a contiguous part of the neighbourhood's
+ * rows in ascending order. Each of those rows is given its rank in the other order, and a segment tree
+ * over the ranks gives the row with the smallest rank in any part in O(log n). The first row of a part is
+ * taken from a priority queue of parts, and the parts to its left and right are put back, so the first k
+ * rows of a price range are found in O(k log n).
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class OrderedRows
+{
+    // The rows in ascending order, and the same rows in the other order.
+    private int[] rows;
+    private int[] order;
+    // The smallest rank in the other order of the rows under each node; the leaves, from rows.length,
+    // hold the rank of each row in ascending order.
+    private int[] minimumRanks;
+
+    /**
+     * Constructor for objects of class OrderedRows
+     * @param rows the rows in ascending order
+     * @param order the same rows in the other order
+     */
+    public OrderedRows(int[] rows, int[] order)
+    {
+        this.rows = rows;
+        this.order = order;
+        minimumRanks = new int[2 * rows.length];
+        for(int rank = 0; rank < order.length; rank++)
+            minimumRanks[rows.length + ListingIndex.position(rows, order[rank])] = rank;
+        for(int node = rows.length - 1; node > 0; node--)
+            minimumRanks[node] = Math.min(minimumRanks[2 * node], minimumRanks[2 * node + 1]);
+    }
+
+    /**
+     * Returns at most limit of the rows from firstRow up to, but not including, endRow, starting at
+     * position offset in the other order.
+     */
+    public int[] getRows(int firstRow, int endRow, int offset, int limit)
+    {
+        int from = ListingIndex.position(rows, firstRow);
+        int to = ListingIndex.position(rows, endRow);
+        int[] page = new int[Math.max(0, Math.min(limit, to - from - offset))];
+        if(page.length == 0)
+            return page;
+        if(from == 0 && to == rows.length) {
+            System.arraycopy(order, offset, page, 0, page.length);
+            return page;
+        }
+        // Each part is held as its smallest rank and the positions of its first row and after its last row.
+        PriorityQueue<int[]> parts = new PriorityQueue<>((first, second) -> Integer.compare(first[0], second[0]));
+        addPart(parts, from, to);
+        for(int visited = 0; visited < offset + page.length; visited++) {
+            int[] part = parts.poll();
+            int row = order[part[0]];
+            int position = ListingIndex.position(rows, row);
+            addPart(parts, part[1], position);
+            addPart(parts, position + 1, part[2]);
+            if(visited >= offset)
+                page[visited - offset] = row;
+        }
+        return page;
+    }
+
+    /**
+     * Adds the part of the rows from position from up to, but not including, position to to the queue,
+     * unless it is empty.
+     */
+    private void addPart(PriorityQueue<int[]> parts, int from, int to)
+    {
+        if(from < to)
+            parts.add(new int[] {minimumRank(from, to), from, to});
+    }
+
+    /**
+     * Returns the smallest rank of the rows from position from up to, but not including, position to.
+     */
+    private int minimumRank(int from, int to)
+    {
+        int minimum = Integer.MAX_VALUE;
+        for(int low = from + rows.length, high = to + rows.length; low < high; low >>= 1, high >>= 1) {
+            if((low & 1) == 1)
+                minimum = Math.min(minimum, minimumRanks[low++]);
+            if((high & 1) == 1)
+                minimum = Math.min(minimum, minimumRanks[--high]);
+        }
+        return minimum;
+    }
+}
@@ -0,0 +1,66 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The test class OrderedRowsTest. Each page is checked against a scan of every row in the other order.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class OrderedRowsTest
+{
+    /**
+     * Default constructor for test class OrderedRowsTest
+     */
+    public OrderedRowsTest()
+    {
+    }
+
+    @Test
+    public void TestPagesMatchScan()
+    {
+        Random random = new Random(1);
+        for(int size : new int[] {0, 1, 2, 7, 100, 1000}) {
+            // Rows with gaps between them, as those of one neighbourhood, in ascending order and shuffled.
+            int[] rows = new int[size];
+            for(int i = 0; i < size; i++)
+                rows[i] = (i == 0 ? 0 : rows[i - 1]) + 1 + random.nextInt(3);
+            int[] order = rows.clone();
+            for(int i = size - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+            OrderedRows ordered = new OrderedRows(rows, order);
+            int last = size == 0 ? 0 : rows[size - 1];
+            for(int query = 0; query < 200; query++) {
+                int firstRow = random.nextInt(last + 3) - 1;
+                int endRow = firstRow + random.nextInt(last + 3);
+                int offset = random.nextInt(size + 2);
+                int limit = query % 10 == 0 ? Integer.MAX_VALUE : random.nextInt(size + 2);
+                assertArrayEquals(size + ": " + firstRow + " to " + endRow + ", " + offset + ", " + limit,
+                                  scan(order, firstRow, endRow, offset, limit), ordered.getRows(firstRow, endRow, offset, limit));
+            }
+            assertArrayEquals(order, ordered.getRows(0, last + 1, 0, Integer.MAX_VALUE));
+            assertArrayEquals(Arrays.copyOfRange(order, Math.min(size, 3), size),
+                              ordered.getRows(Integer.MIN_VALUE, Integer.MAX_VALUE, 3, Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Returns the page of the rows from firstRow up to endRow found by visiting every row in the order.
+     */
+    private static int[] scan(int[] order, int firstRow, int endRow, int offset, int limit)
+    {
+        int[] page = new int[order.length];
+        int position = 0, count = 0;
+        for(int row : order) {
+            if(row >= firstRow && row < endRow && position++ >= offset && count < limit)
+                page[count++] = row;
+        }
+        return Arrays.copyOf(page, count);
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * The PriceAggregates class holds running totals of the statistics of a ListingTable, taken in price order,
+ * so that the statistics of any price range can be found without visiting its listings.
+ * The rows of the table are sorted by price and grouped by price. For each group, the statistics of all
+ * rows before it are stored. The statistics of a price range are then the difference between the totals
+ * at the end of the range and at its start, found with two binary searches.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class PriceAggregates
+{
+    private ListingTable table;
+    // The first row of each group of rows with the same price, followed by the number of rows.
+    private int[] groupStartRows;
+    // The statistics of all rows before the start of each group, and of all rows.
+    private ListingStatistics[] totalsBefore;
+
+    /**
+     * Constructor for objects of class PriceAggregates
+     * @param table a table sorted by price
+     */
+    public PriceAggregates(ListingTable table)
+    {
+        this.table = table;
+        int groups = 0;
+        for(int row = 0; row < table.size(); row++) {
+            if(row == 0 || table.getPrice(row) != table.getPrice(row - 1))
+                groups++;
+        }
+        groupStartRows = new int[groups + 1];
+        totalsBefore = new ListingStatistics[groups + 1];
+        ListingStatistics running = new ListingStatistics(table.getNeighbourhoods());
+        int group = 0;
+        int start = 0;
+        for(int row = 1; row <= table.size(); row++) {
+            if(row == table.size() || table.getPrice(row) != table.getPrice(row - 1)) {
+                groupStartRows[group] = start;
+                totalsBefore[group] = running.copy();
+                running.addRows(table, start, row);
+                group++;
+                start = row;
+            }
+        }
+        groupStartRows[groups] = table.size();
+        totalsBefore[groups] = running;
+    }
+
+    /**
+     * Returns the statistics of the rows from fromRow (inclusive) to toRow (exclusive). When both rows are
+     * the start of a price group, as they are for a price range, they are found from the running totals.
+     * Otherwise the rows are scanned.
+     */
+    public ListingStatistics getStatistics(int fromRow, int toRow)
+    {
+        int from = group(fromRow);
+        int to = group(toRow);
+        if(from < 0 || to < 0)
+            return ListingStatistics.calculate(table, fromRow, toRow);
+        ListingStatistics statistics = totalsBefore[to].copy();
+        statistics.subtract(totalsBefore[from]);
+        return statistics;
+    }
+
+    /**
+     * Returns the group that starts at the given row, or -1 if no group starts there.
+     */
+    private int group(int row)
+    {
+        int low = 0;
+        int high = groupStartRows.length - 1;
+        while(low <= high) {
+            int middle = (low + high) >>> 1;
+            if(groupStartRows[middle] < row)
+                low = middle + 1;
+            else if(groupStartRows[middle] > row)
+                high = middle - 1;
+            else
+                return middle;
+        }
+        return -1;
+    }
+}
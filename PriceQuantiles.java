@@ -0,0 +1,78 @@
+import java.util.HashMap;
+
+/**
+ * The PriceQuantiles class holds a QuantileSketch of the prices of the listings in each neighbourhood
+ * and room type of a ListingTable. The sketches are built once, and the sketches needed for a query are
+ * merged the first time it is asked and kept, so that quantiles such as the median price of a room type
+ * across the whole data set can be estimated without sorting its listings. The quantiles of a price
+ * range are not estimated from the sketches, as their error is a share of every listing in the sketch
+ * rather than of those in the range; PropertyMap finds those exactly from the sorted rows instead.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class PriceQuantiles
+{
+    private ListingTable table;
+    // The sketch of each neighbourhood and room type, indexed by [neighbourhood code][room type code].
+    private QuantileSketch[][] sketches;
+    // The merged sketches already asked for, by neighbourhood code and room type code, -1 meaning every one.
+    private HashMap<Long, QuantileSketch> merged;
+
+    /**
+     * Constructor for objects of class PriceQuantiles
+     */
+    public PriceQuantiles(ListingTable table)
+    {
+        this.table = table;
+        sketches = new QuantileSketch[table.getNeighbourhoods().size()][table.getRoomTypes().size()];
+        for(int row = 0; row < table.size(); row++) {
+            int neighbourhood = table.getNeighbourhoodCode(row);
+            int roomType = table.getRoomTypeCode(row);
+            if(sketches[neighbourhood][roomType] == null)
+                sketches[neighbourhood][roomType] = new QuantileSketch();
+            sketches[neighbourhood][roomType].add(table.getPrice(row));
+        }
+        merged = new HashMap<>();
+    }
+
+    /**
+     * Returns a sketch of the prices of the listings in the given neighbourhood and room type. The returned
+     * sketch is shared, and must not be changed.
+     * @param neighbourhood the neighbourhood, or null for every neighbourhood
+     * @param roomType the room type, or null for every room type
+     */
+    public synchronized QuantileSketch getSketch(String neighbourhood, String roomType)
+    {
+        int neighbourhoodCode = neighbourhood == null ? -1 : table.getNeighbourhoods().codeOf(neighbourhood);
+        int roomTypeCode = roomType == null ? -1 : table.getRoomTypes().codeOf(roomType);
+        if((neighbourhood != null && neighbourhoodCode < 0) || (roomType != null && roomTypeCode < 0))
+            return new QuantileSketch();
+        long key = ((long) neighbourhoodCode << 32) | (roomTypeCode & 0xFFFFFFFFL);
+        QuantileSketch sketch = merged.get(key);
+        if(sketch != null)
+            return sketch;
+        sketch = new QuantileSketch();
+        for(int n = 0; n < sketches.length; n++) {
+            for(int r = 0; r < sketches[n].length; r++) {
+                if((neighbourhoodCode < 0 || n == neighbourhoodCode) && (roomTypeCode < 0 || r == roomTypeCode)
+                   && sketches[n][r] != null)
+                    sketch.merge(sketches[n][r]);
+            }
+        }
+        merged.put(key, sketch);
+        return sketch;
+    }
+
+    /**
+     * Returns the estimated quantile of the prices of every listing in the given neighbourhood and room
+     * type, or -1 if there are none. See QuantileSketch for its accuracy.
+     * @param neighbourhood the neighbourhood, or null for every neighbourhood
+     * @param roomType the room type, or null for every room type
+     * @param fraction the quantile, from 0 to 1, for example 0.5 for the median
+     */
+    public int getQuantile(String neighbourhood, String roomType, double fraction)
+    {
+        return getSketch(neighbourhood, roomType).getQuantile(fraction);
+    }
+}
@@ -1,6 +1,11 @@
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * The Map class represents a list of properties that are currently being displayed on the map, based on the users search parameters.
@@ -11,10 +16,30 @@ import java.util.HashMap;
  */
 public class PropertyMap
 {
+    // The maps of the most recently used price ranges, keyed by lower limit and upper limit, least recently
+    // used first.
+    private static int cacheSize = 8;
+    private static LinkedHashMap<Long, PropertyMap> cache = new LinkedHashMap<Long, PropertyMap>(16, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry<Long, PropertyMap> eldest)
+        {
+            return size() > cacheSize;
+        }
+    };
+    private static long cacheHits, cacheMisses;
+    
+    // The listings on the map are the rows firstRow (inclusive) to endRow (exclusive) of the table.
+    private ListingTable table;
+    private ListingIndex index;
+    private PriceAggregates priceAggregates;
+    private BitmapIndex bitmapIndex;
+    private SpatialIndex spatialIndex;
+    private int firstRow, endRow;
     private ArrayList<AirbnbListing> listings;
+    private ListingStatistics statistics;
     private int lowerLimit, upperLimit;
-    private AirbnbDataLoader airbnbLoader;
     private HashMap<String, Marker> markers;
+    // The markers indexed by the code of their neighbourhood in the table, or null for neighbourhoods without one.
+    private Marker[] markersByCode;
     
     /**
      * Constructor for objects of class Map
@@ -23,33 +48,206 @@ public class PropertyMap
     {
         this.lowerLimit = lowerLimit;
         this.upperLimit = upperLimit;
-        listings = new AirbnbDataLoader().load();
-        listings.removeIf(listing -> listing.getPrice() < lowerLimit || listing.getPrice() > upperLimit);
+        table = ListingSnapshot.getInstance().getTable();
+        index = ListingSnapshot.getInstance().getIndex();
+        priceAggregates = ListingSnapshot.getInstance().getPriceAggregates();
+        bitmapIndex = ListingSnapshot.getInstance().getBitmapIndex();
+        spatialIndex = ListingSnapshot.getInstance().getSpatialIndex();
+        firstRow = table.firstRowWithPrice(lowerLimit, false);
+        endRow = Math.max(firstRow, table.firstRowWithPrice(upperLimit, true));
         markers = new MarkerDataLoader().load();
+        markersByCode = new Marker[table.getNeighbourhoods().size()];
+        for(Marker marker : markers.values()) {
+            int code = table.getNeighbourhoods().codeOf(marker.getNeighbourhood());
+            if(code >= 0)
+                markersByCode[code] = marker;
+        }
         calculateMarkerSizes();
     }
     
+    /**
+     * Returns the map of the listings between lowerLimit and upperLimit. Maps of recently used price ranges are
+     * kept, together with their markers and statistics, and returned again instead of being created anew.
+     * The returned map is shared, and must not be changed.
+     */
+    public static synchronized PropertyMap forRange(int lowerLimit, int upperLimit)
+    {
+        long key = ((long) lowerLimit << 32) | (upperLimit & 0xFFFFFFFFL);
+        PropertyMap map = cache.get(key);
+        if(map != null) {
+            cacheHits++;
+            return map;
+        }
+        cacheMisses++;
+        map = new PropertyMap(lowerLimit, upperLimit);
+        cache.put(key, map);
+        return map;
+    }
+    
+    /**
+     * Sets the number of price ranges whose maps are kept by forRange(), removing the least recently used
+     * maps if there are more than that.
+     */
+    public static synchronized void setCacheSize(int size)
+    {
+        if(size < 0)
+            throw new IllegalArgumentException("Cache size must not be negative: " + size);
+        cacheSize = size;
+        while(cache.size() > cacheSize)
+            cache.remove(cache.keySet().iterator().next());
+    }
+    
+    /**
+     * Returns the number of times forRange() returned a kept map.
+     */
+    public static synchronized long getCacheHits()
+    {
+        return cacheHits;
+    }
+    
+    /**
+     * Returns the number of times forRange() had to create a new map.
+     */
+    public static synchronized long getCacheMisses()
+    {
+        return cacheMisses;
+    }
+    
+    /**
+     * Removes every kept map and resets the hit and miss counts.
+     */
+    public static synchronized void clearCache()
+    {
+        cache.clear();
+        cacheHits = 0;
+        cacheMisses = 0;
+    }
+    
     /**
      * Removes all of the listings that are not within the specified neighbourhood. Used when the user clicks on an icon on the map.
      */
     public ArrayList<AirbnbListing> filterListingsByNeighbourhood(String neighbourhood)
     {
-        ArrayList<AirbnbListing> filteredListings = new ArrayList<>(listings);
-        filteredListings.removeIf(listing -> !listing.getNeighbourhood().equals(neighbourhood));
+        int[] rows = getNeighbourhoodRows(neighbourhood);
+        ArrayList<AirbnbListing> filteredListings = new ArrayList<>(rows.length);
+        for(int row : rows)
+            filteredListings.add(table.getListing(row));
+        return filteredListings;
+    }
+    
+    /**
+     * Returns the rows of the table of the listings on the map in the given neighbourhood, in ascending order.
+     */
+    public int[] getNeighbourhoodRows(String neighbourhood)
+    {
+        int code = table.getNeighbourhoods().codeOf(neighbourhood);
+        if(code < 0)
+            return new int[0];
+        // Only the neighbourhood's rows that lie within the rows on the map are visited.
+        int[] rows = index.getNeighbourhoodRows(code);
+        int from = ListingIndex.position(rows, firstRow);
+        int to = ListingIndex.position(rows, endRow);
+        return Arrays.copyOfRange(rows, from, to);
+    }
+    
+    /**
+     * Returns a bitmap of the rows of the table of the listings on the map that are selected by the query.
+     */
+    public BitSet select(ListingQuery query)
+    {
+        BitSet rows = query.evaluate(bitmapIndex);
+        rows.clear(0, firstRow);
+        rows.clear(endRow, Math.max(endRow, rows.length()));
+        return rows;
+    }
+    
+    /**
+     * Returns the listings on the map that are selected by the query, in ascending order of price.
+     */
+    public ArrayList<AirbnbListing> filterListings(ListingQuery query)
+    {
+        BitSet rows = select(query);
+        ArrayList<AirbnbListing> filteredListings = new ArrayList<>(rows.cardinality());
+        for(int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1))
+            filteredListings.add(table.getListing(row));
         return filteredListings;
     }
     
+    /**
+     * Returns the statistics of the listings on the map that are selected by the query.
+     */
+    public ListingStatistics getStatistics(ListingQuery query)
+    {
+        return ListingStatistics.calculate(table, select(query));
+    }
+    
+    /**
+     * Returns the listings on the map that are selected by the query, in the order given by the sorting type.
+     */
+    public ArrayList<AirbnbListing> sort(String sortingType, ListingQuery query)
+    {
+        int[] rows = select(query).stream().toArray();
+        if(sortingType.equals("Price")) {
+            // The rows are sorted by price, so in reverse they are sorted by descending price.
+            for(int i = 0; i < rows.length / 2; i++) {
+                int row = rows[i];
+                rows[i] = rows[rows.length - 1 - i];
+                rows[rows.length - 1 - i] = row;
+            }
+        } else if(sortingType.equals("Number of Reviews")) {
+            rows = index.sortByReviews(rows);
+        } else {
+            rows = index.sortByHost(rows);
+        }
+        ArrayList<AirbnbListing> sorted = new ArrayList<>(rows.length);
+        for(int row : rows)
+            sorted.add(table.getListing(row));
+        return sorted;
+    }
+    
+    /**
+     * Returns the k listings, of any price, nearest to the given listing, nearest first. The listing itself
+     * is left out.
+     */
+    public ArrayList<AirbnbListing> getNearbyListings(AirbnbListing listing, int k)
+    {
+        int[] rows = spatialIndex.nearest(listing.getLatitude(), listing.getLongitude(), k + 1);
+        ArrayList<AirbnbListing> nearby = new ArrayList<>(k);
+        for(int row : rows) {
+            if(nearby.size() < k && !table.getId(row).equals(listing.getId()))
+                nearby.add(table.getListing(row));
+        }
+        return nearby;
+    }
+    
+    /**
+     * Returns the listings, of any price, within the given latitudes and longitudes, for example those in
+     * view on a map, in ascending order of price.
+     */
+    public ArrayList<AirbnbListing> getListingsInArea(double minimumLatitude, double minimumLongitude,
+                                                      double maximumLatitude, double maximumLongitude)
+    {
+        int[] rows = spatialIndex.boundingBox(minimumLatitude, minimumLongitude, maximumLatitude, maximumLongitude);
+        ArrayList<AirbnbListing> listingsInArea = new ArrayList<>(rows.length);
+        for(int row : rows)
+            listingsInArea.add(table.getListing(row));
+        return listingsInArea;
+    }
+    
+    /**
+     * Returns the table that holds the listings. The table must not be modified.
+     */
+    public ListingTable getTable()
+    {
+        return table;
+    }
+    
     /**
      * Returns the average number of reviews of the listings on the map.
      */
     public int getAverageNumberOfReviews()
     {
-        if (listings.size() == 0)
-            return 0;
-        int total = 0;
-        for(AirbnbListing listing : listings)
-            total += listing.getNumberOfReviews();
-        return total/listings.size();
+        return getStatistics().getAverageNumberOfReviews();
     }
     
     /**
@@ -57,7 +255,7 @@ public class PropertyMap
      */
     public int getTotalNumberOfListings()
     {
-        return listings.size();
+        return endRow - firstRow;
     }
     
     /**
@@ -65,12 +263,7 @@ public class PropertyMap
      */
     public int getNumberOfEntireHomesAndApartments()
     {
-        int total = 0;
-        for(AirbnbListing listing : listings) {
-            if(listing.getRoom_type().equals("Entire home/apt"))
-                total++;
-        }
-        return total;
+        return getStatistics().getNumberOfEntireHomesAndApartments();
     }
     
     /**
@@ -78,43 +271,7 @@ public class PropertyMap
      */
     public String getPriciestNeighbourhood()
     {
-        // Creates a HashMap of neighbourhood to number of properties in the neighbourhood
-        HashMap<String, Integer> numberPropertiesInNeighbourhood = new HashMap<>();
-        for(AirbnbListing listing : listings) {
-            String neighbourhood = listing.getNeighbourhood();
-            if(numberPropertiesInNeighbourhood.containsKey(listing.getNeighbourhood())) {
-                int newValue = numberPropertiesInNeighbourhood.get(neighbourhood) + 1;
-                numberPropertiesInNeighbourhood.put(listing.getNeighbourhood(), newValue);
-            } else {
-                numberPropertiesInNeighbourhood.put(listing.getNeighbourhood(), 1);
-            }
-        }
-        // Creates a hashmap of neighbourhood to the sum of the product of each listing in the neighbourhood's price and min nights
-        HashMap<String, Integer> neighbourhoods = new HashMap<>();
-        for(AirbnbListing listing : listings) {
-            String neighbourhood = listing.getNeighbourhood();
-            if(neighbourhoods.containsKey(neighbourhood)) {
-                int newValue = neighbourhoods.get(neighbourhood) + (listing.getPrice() * listing.getMinimumNights());
-                neighbourhoods.replace(neighbourhood, newValue);
-            } else {
-                neighbourhoods.put(neighbourhood, listing.getPrice() * listing.getMinimumNights());
-            }
-        }
-        // Divide each neighbourhood's value in neighbourhoods by its value in numberPropertiesInNeighbourhood
-        for(String neighbourhood : neighbourhoods.keySet()) {
-            int newValue = neighbourhoods.get(neighbourhood) / numberPropertiesInNeighbourhood.get(neighbourhood);
-            neighbourhoods.replace(neighbourhood, newValue);
-        }
-        // Find the highest value in the neighbourhoods HashMap
-        int greatest = 0;
-        String priciestNeighbourhood = "";
-        for(String neighbourhood : neighbourhoods.keySet()) {
-            if(neighbourhoods.get(neighbourhood) > greatest) {
-                greatest = neighbourhoods.get(neighbourhood);
-                priciestNeighbourhood = neighbourhood;
-            }
-        }
-        return priciestNeighbourhood;
+        return getStatistics().getPriciestNeighbourhood();
     }
     
     /**
@@ -122,16 +279,88 @@ public class PropertyMap
      */
     public int getStandardDeviation()
     {
-        int total = 0;
-        if(listings.size() == 0)
-            return 0;
-        for(AirbnbListing listing : listings)
-            total += listing.getPrice();
-        double averagePrice = total/listings.size();
-        double sum = 0;
-        for(AirbnbListing listing : listings)
-            sum += (listing.getPrice() - averagePrice) * (listing.getPrice() - averagePrice);
-        return (int) Math.round(Math.sqrt(sum/listings.size()));
+        return getStatistics().getStandardDeviation();
+    }
+    
+    /**
+     * Returns the median price of the listings on the map, or -1 if there are none.
+     */
+    public int getMedianPrice()
+    {
+        return getPriceQuantile(0.5);
+    }
+    
+    /**
+     * Returns the price below which 90% of the listings on the map lie.
+     */
+    public int getNinetiethPercentilePrice()
+    {
+        return getPriceQuantile(0.9);
+    }
+    
+    /**
+     * Returns the price below which 99% of the listings on the map lie.
+     */
+    public int getNinetyNinthPercentilePrice()
+    {
+        return getPriceQuantile(0.99);
+    }
+    
+    /**
+     * Returns the quantile of the prices of the listings on the map, or -1 if there are none. The rows of the
+     * table are sorted by price, so the quantile is the price of the row at its position.
+     * @param fraction the quantile, from 0 to 1, for example 0.5 for the median
+     */
+    public int getPriceQuantile(double fraction)
+    {
+        int count = endRow - firstRow;
+        return count == 0 ? -1 : table.getPrice(firstRow + quantilePosition(fraction, count));
+    }
+    
+    /**
+     * Returns the quantile of the prices of the listings on the map in the given neighbourhood and room
+     * type, or -1 if there are none. The rows of the neighbourhood and room type in the ListingIndex are in
+     * order of price, so the quantile is the price of the row at its position among those on the map.
+     * @param neighbourhood the neighbourhood, or null for every neighbourhood
+     * @param roomType the room type, or null for every room type
+     * @param fraction the quantile, from 0 to 1, for example 0.5 for the median
+     */
+    public int getPriceQuantile(String neighbourhood, String roomType, double fraction)
+    {
+        if(neighbourhood == null && roomType == null)
+            return getPriceQuantile(fraction);
+        int neighbourhoodCode = neighbourhood == null ? -1 : table.getNeighbourhoods().codeOf(neighbourhood);
+        int roomTypeCode = roomType == null ? -1 : table.getRoomTypes().codeOf(roomType);
+        if((neighbourhood != null && neighbourhoodCode < 0) || (roomType != null && roomTypeCode < 0))
+            return -1;
+        int[] rows = roomType == null ? index.getNeighbourhoodRows(neighbourhoodCode)
+            : neighbourhood == null ? index.getRoomTypeRows(roomTypeCode)
+            : index.getNeighbourhoodRows(neighbourhoodCode, roomTypeCode);
+        int from = ListingIndex.position(rows, firstRow);
+        int count = ListingIndex.position(rows, endRow) - from;
+        return count == 0 ? -1 : table.getPrice(rows[from + quantilePosition(fraction, count)]);
+    }
+    
+    /**
+     * Returns the position, among count values in ascending order, of the given quantile: the first
+     * position at which at least that fraction of the values have been reached.
+     */
+    private static int quantilePosition(double fraction, int count)
+    {
+        if(fraction < 0 || fraction > 1)
+            throw new IllegalArgumentException("Quantile must be from 0 to 1: " + fraction);
+        return (int) Math.min(count - 1, Math.max(0, Math.ceil(fraction * count) - 1));
+    }
+    
+    /**
+     * Returns the statistics of the listings on the map. They are found from the running totals of the
+     * PriceAggregates the first time they are needed, without visiting the listings.
+     */
+    public ListingStatistics getStatistics()
+    {
+        if(statistics == null)
+            statistics = priceAggregates.getStatistics(firstRow, endRow);
+        return statistics;
     }
     
     /**
@@ -139,6 +368,12 @@ public class PropertyMap
      */
     public ArrayList<AirbnbListing> getListings()
     {
+        // The AirbnbListing objects are only created the first time they are asked for.
+        if(listings == null) {
+            listings = new ArrayList<>(getTotalNumberOfListings());
+            for(int row = firstRow; row < endRow; row++)
+                listings.add(table.getListing(row));
+        }
         return listings;
     }
     
@@ -148,9 +383,10 @@ public class PropertyMap
     private void calculateMarkerSizes()
     {
         // Count number of listings in each neighbourhood
-        for(AirbnbListing listing : listings) {
-            String neighbourhood = listing.getNeighbourhood();
-            markers.get(neighbourhood).incrementListings();
+        ListingStatistics statistics = getStatistics();
+        for(int code = 0; code < markersByCode.length; code++) {
+            if(markersByCode[code] != null)
+                markersByCode[code].addListings(statistics.getNumberOfListings(code));
         }
         // Calculate size of marker given the number of listings in the neighbourhood
         for(String neighbourhood : markers.keySet()) {
@@ -158,6 +394,34 @@ public class PropertyMap
         }
     }
     
+    /**
+     * Calculates the statistics of the listings between lowerLimit and upperLimit in a single pass over
+     * the csv file, without loading the data set into memory.
+     */
+    public static ListingStatistics streamStatistics(int lowerLimit, int upperLimit)
+    {
+        ListingStatistics statistics = new ListingStatistics();
+        new AirbnbDataLoader().forEach(listing -> {
+            if(listing.getPrice() >= lowerLimit && listing.getPrice() <= upperLimit)
+                statistics.accept(listing);
+        });
+        return statistics;
+    }
+    
+    /**
+     * Creates the markers for the listings counted in the given statistics, for example by streamStatistics(),
+     * sized in the same way as calculateMarkerSizes() sizes them.
+     */
+    public static HashMap<String, Marker> createMarkers(ListingStatistics statistics)
+    {
+        HashMap<String, Marker> markers = new MarkerDataLoader().load();
+        for(String neighbourhood : markers.keySet()) {
+            markers.get(neighbourhood).addListings(statistics.getNumberOfListings(neighbourhood));
+            markers.get(neighbourhood).calculateSize();
+        }
+        return markers;
+    }
+    
     /**
      * Returns all markers on the map.
      */
@@ -169,20 +433,11 @@ public class PropertyMap
      * Sorts all of the current listings by the number of reviews.
      */
     public ArrayList<AirbnbListing> sortListingsByReviews(ArrayList<AirbnbListing> listings) {
-        ArrayList<AirbnbListing> tempListings = new ArrayList<>(listings);
-        ArrayList<AirbnbListing> orderedListings = new ArrayList<>();
-        while(!tempListings.isEmpty()) {
-            int highestNumberOfReviews = 0;
-            AirbnbListing listingWithHighestReviews = null;
-            for(AirbnbListing listing : tempListings) {
-                if(listing.getNumberOfReviews() >= highestNumberOfReviews) {
-                    highestNumberOfReviews = listing.getNumberOfReviews();
-                    listingWithHighestReviews = listing;
-                }
-            }
-            orderedListings.add(listingWithHighestReviews);
-            tempListings.remove(listingWithHighestReviews);
-        }
+        // The listings are reversed before the stable sort, so listings with the same number of reviews
+        // come out in reverse order, as they did when the listing with the most reviews was picked repeatedly.
+        ArrayList<AirbnbListing> orderedListings = new ArrayList<>(listings);
+        Collections.reverse(orderedListings);
+        orderedListings.sort(Comparator.comparingInt(AirbnbListing::getNumberOfReviews).reversed());
         return orderedListings;
     }
     
@@ -190,20 +445,9 @@ public class PropertyMap
      * Sorts all of the current listings by current price.
      */
     public ArrayList<AirbnbListing> sortListingsByPrice(ArrayList<AirbnbListing> listings) {
-        ArrayList<AirbnbListing> tempListings = new ArrayList<>(listings);
-        ArrayList<AirbnbListing> orderedListings = new ArrayList<>();
-        while(!tempListings.isEmpty()) {
-            int highestPrice = 0;
-            AirbnbListing listingWithHighestPrice = null;
-            for(AirbnbListing listing : tempListings) {
-                if(listing.getPrice() >= highestPrice) {
-                    highestPrice = listing.getPrice();
-                    listingWithHighestPrice = listing;
-                }
-            }
-            orderedListings.add(listingWithHighestPrice);
-            tempListings.remove(listingWithHighestPrice);
-        }
+        ArrayList<AirbnbListing> orderedListings = new ArrayList<>(listings);
+        Collections.reverse(orderedListings);
+        orderedListings.sort(Comparator.comparingInt(AirbnbListing::getPrice).reversed());
         return orderedListings;
     }
     
@@ -211,21 +455,9 @@ public class PropertyMap
      * Sorts all of the listings by the Host name.
      */
     public ArrayList<AirbnbListing> sortListingsByHost(ArrayList<AirbnbListing> listings) {
-        ArrayList<AirbnbListing> tempListings = new ArrayList<>(listings);
-        ArrayList<AirbnbListing> orderedListings = new ArrayList<>();
-        while(!tempListings.isEmpty()) {
-            String firstHost = tempListings.get(0).getHost_name();
-            AirbnbListing listingWithFirstHost = null;
-            for(AirbnbListing listing : tempListings) {
-                String listingHostName = listing.getHost_name();
-                if(listingHostName.compareToIgnoreCase(firstHost) <= 0) {
-                    firstHost = listingHostName;
-                    listingWithFirstHost = listing;
-                }
-            }
-            orderedListings.add(listingWithFirstHost);
-            tempListings.remove(listingWithFirstHost);
-        }
+        ArrayList<AirbnbListing> orderedListings = new ArrayList<>(listings);
+        Collections.reverse(orderedListings);
+        orderedListings.sort(Comparator.comparing(AirbnbListing::getHost_name, String.CASE_INSENSITIVE_ORDER));
         return orderedListings;
     }
     
@@ -234,12 +466,7 @@ public class PropertyMap
      */
     public int getAveragePrice()
     {
-        if (listings.size() == 0)
-            return 0;
-        int total = 0;
-        for(AirbnbListing listing : listings)
-            total += listing.getPrice();
-        return total/listings.size();
+        return getStatistics().getAveragePrice();
     }
     
     /**
@@ -247,17 +474,7 @@ public class PropertyMap
      */
     public int getAveragePriceSharedRoom()
     {
-        int sum = 0;
-        int numSharedRooms = 0;
-        for(AirbnbListing listing : listings) {
-            if(listing.getRoom_type().equals("Shared room")) {
-                numSharedRooms++;
-                sum += listing.getPrice();
-            }
-        }
-        if (numSharedRooms == 0)
-            return 0;
-        return sum/numSharedRooms;
+        return getStatistics().getAveragePriceSharedRoom();
     }
     
     /**
@@ -265,17 +482,7 @@ public class PropertyMap
      */
     public int getAveragePricePrivateRoom()
     {
-        int sum = 0;
-        int numPrivateRooms = 0;
-        for(AirbnbListing listing : listings) {
-            if(listing.getRoom_type().equals("Private room")) {
-                numPrivateRooms++;
-                sum += listing.getPrice();
-            }
-        }
-        if (numPrivateRooms == 0)
-            return 0;
-        return sum/numPrivateRooms;
+        return getStatistics().getAveragePricePrivateRoom();
     }
     
     /**
@@ -284,13 +491,90 @@ public class PropertyMap
      */
     public ArrayList<AirbnbListing> sort(String sortingType, String neighbourhood)
     {
-        ArrayList<AirbnbListing> sorted;
-        if(sortingType.equals("Number of Reviews"))
-            sorted = new ArrayList<>(sortListingsByReviews(filterListingsByNeighbourhood(neighbourhood)));
-        else if(sortingType.equals("Price"))
-            sorted = new ArrayList<>(sortListingsByPrice(filterListingsByNeighbourhood(neighbourhood)));
-        else
-            sorted = new ArrayList<>(sortListingsByHost(filterListingsByNeighbourhood(neighbourhood)));
+        return page(sortingType, neighbourhood, 0, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Returns the first k listings on the map in the given neighbourhood, in the order given by the sorting
+     * type, for example the 20 listings with the most reviews.
+     */
+    public ArrayList<AirbnbListing> topK(String sortingType, String neighbourhood, int k)
+    {
+        return page(sortingType, neighbourhood, 0, k);
+    }
+    
+    /**
+     * Returns at most limit listings on the map in the given neighbourhood, starting at position offset in
+     * the order given by the sorting type. The orders are looked up in the ListingIndex, so only the
+     * listings up to the end of the page are visited, at a cost of O(log n) each for the orders by number
+     * of reviews and by host name.
+     */
+    public ArrayList<AirbnbListing> page(String sortingType, String neighbourhood, int offset, int limit)
+    {
+        int[] rows = getSortedRows(sortingType, neighbourhood, offset, limit);
+        ArrayList<AirbnbListing> sorted = new ArrayList<>(rows.length);
+        for(int row : rows)
+            sorted.add(table.getListing(row));
         return sorted;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Returns the rows of the table of the listings on the map in the given neighbourhood, in the order given
+     * by the sorting type.
+     */
+    public int[] getSortedRows(String sortingType, String neighbourhood)
+    {
+        return getSortedRows(sortingType, neighbourhood, 0, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Returns the rows of the table of the listings on the map in the given neighbourhood, sorted by descending
+     * average rating. Listings without reviews come last, and rows with the same average are in descending order.
+     */
+    public int[] getSortedRowsByRating(String neighbourhood, RatingAggregates ratings)
+    {
+        int[] rows = getNeighbourhoodRows(neighbourhood);
+        long[] keys = new long[rows.length];
+        // Sorting these keys in ascending order sorts by ascending average, in millionths, and then by
+        // ascending row, so they are read backwards. Listings without reviews have the smallest key.
+        for(int i = 0; i < rows.length; i++) {
+            String id = table.getId(rows[i]);
+            long average = ratings.getCount(id) == 0 ? 0 : 1 + Math.round(ratings.getAverage(id) * 1000000);
+            keys[i] = (average << 32) | rows[i];
+        }
+        Arrays.sort(keys);
+        int[] sorted = new int[rows.length];
+        for(int i = 0; i < rows.length; i++)
+            sorted[i] = (int) keys[rows.length - 1 - i];
+        return sorted;
+    }
+    
+    /**
+     * Returns the rows of at most limit listings on the map in the given neighbourhood, starting at position
+     * offset in the order given by the sorting type. The orders are the same as those of sortListingsByReviews(),
+     * sortListingsByPrice() and sortListingsByHost(), but are looked up in the ListingIndex instead of being
+     * sorted each time.
+     */
+    private int[] getSortedRows(String sortingType, String neighbourhood, int offset, int limit)
+    {
+        if(offset < 0 || limit < 0)
+            throw new IllegalArgumentException("Offset and limit must not be negative: " + offset + ", " + limit);
+        int code = table.getNeighbourhoods().codeOf(neighbourhood);
+        if(code < 0)
+            return new int[0];
+        if(sortingType.equals("Price")) {
+            // The rows are sorted by price, so the neighbourhood's rows in reverse are sorted by descending price.
+            int[] rows = index.getNeighbourhoodRows(code);
+            int from = ListingIndex.position(rows, firstRow);
+            int to = ListingIndex.position(rows, endRow);
+            int[] sorted = new int[Math.max(0, Math.min(limit, to - from - offset))];
+            for(int i = 0; i < sorted.length; i++)
+                sorted[i] = rows[to - 1 - offset - i];
+            return sorted;
+        }
+        // The other orders find the first rows within the map's price range without visiting the rest.
+        if(sortingType.equals("Number of Reviews"))
+            return index.getNeighbourhoodRowsByReviews(code).getRows(firstRow, endRow, offset, limit);
+        return index.getNeighbourhoodRowsByHost(code).getRows(firstRow, endRow, offset, limit);
+    }
+}
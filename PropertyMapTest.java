@@ -4,6 +4,7 @@ import org.junit.Before;
 import org.junit.Test;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.Collections;
 
 /**
  * The test class PropertyMapTest.
@@ -300,4 +301,75 @@ public class PropertyMapTest
         assertFalse(propertyMap2.getAveragePricePrivateRoom() == 26);
         assertFalse(propertyMap3.getAveragePricePrivateRoom() == 100);
     }
-}
\ No newline at end of file
+    
+    @Test
+    public void TestForRangeCache()
+    {
+        PropertyMap.clearCache();
+        PropertyMap.setCacheSize(2);
+        PropertyMap first = PropertyMap.forRange(0, 10);
+        assertSame(first, PropertyMap.forRange(0, 10));
+        PropertyMap.forRange(20, 50);
+        PropertyMap.forRange(100, 200);
+        assertNotSame(first, PropertyMap.forRange(0, 10));
+        assertEquals(1, PropertyMap.getCacheHits());
+        assertEquals(4, PropertyMap.getCacheMisses());
+        PropertyMap.setCacheSize(8);
+        PropertyMap.clearCache();
+    }
+    
+    @Test
+    public void TestGetPriceQuantile()
+    {
+        ArrayList<Integer> prices = new ArrayList<>();
+        for(AirbnbListing listing : propertyMap3.filterListingsByNeighbourhood("Barnet"))
+            prices.add(listing.getPrice());
+        Collections.sort(prices);
+        int count = prices.size();
+        assertEquals((int) prices.get((count - 1) / 2), propertyMap3.getPriceQuantile("Barnet", null, 0.5));
+        assertEquals((int) prices.get((int) Math.ceil(0.99 * count) - 1), propertyMap3.getPriceQuantile("Barnet", null, 0.99));
+        assertEquals((int) prices.get(count - 1), propertyMap3.getPriceQuantile("Barnet", null, 1));
+        assertEquals(-1, propertyMap3.getPriceQuantile("Nowhere", null, 0.5));
+
+        // The same for a room type, in a neighbourhood and across every neighbourhood.
+        for(String neighbourhood : new String[] {"Barnet", null}) {
+            prices.clear();
+            for(AirbnbListing listing : propertyMap3.getListings()) {
+                if(listing.getRoom_type().equals("Private room") && (neighbourhood == null || listing.getNeighbourhood().equals(neighbourhood)))
+                    prices.add(listing.getPrice());
+            }
+            Collections.sort(prices);
+            count = prices.size();
+            assertEquals((int) prices.get((count - 1) / 2), propertyMap3.getPriceQuantile(neighbourhood, "Private room", 0.5));
+            assertEquals((int) prices.get((int) Math.ceil(0.9 * count) - 1), propertyMap3.getPriceQuantile(neighbourhood, "Private room", 0.9));
+        }
+        assertEquals(-1, propertyMap3.getPriceQuantile("Barnet", "Castle", 0.5));
+    }
+    
+    @Test
+    public void TestGetSortedRowsByRating()
+    {
+        int[] rows = propertyMap3.getNeighbourhoodRows("Barnet");
+        ListingTable table = propertyMap3.getTable();
+        RatingAggregates ratings = new RatingAggregates();
+        // Every third listing is left without reviews.
+        for(int i = 0; i < rows.length; i++) {
+            if(i % 3 != 0) {
+                ratings.add(table.getId(rows[i]), 1 + i % 5);
+                ratings.add(table.getId(rows[i]), 1 + i % 4);
+            }
+        }
+        int[] sorted = propertyMap3.getSortedRowsByRating("Barnet", ratings);
+        assertEquals(rows.length, sorted.length);
+        for(int i = 1; i < sorted.length; i++) {
+            String previous = table.getId(sorted[i - 1]), current = table.getId(sorted[i]);
+            if(ratings.getCount(current) == 0) {
+                assertTrue(ratings.getCount(previous) > 0 || sorted[i - 1] > sorted[i]);
+            } else {
+                assertTrue(ratings.getCount(previous) > 0);
+                assertTrue(ratings.getAverage(previous) > ratings.getAverage(current)
+                           || (ratings.getAverage(previous) == ratings.getAverage(current) && sorted[i - 1] > sorted[i]));
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The QuantileSketch class estimates the quantiles, such as the median, of a stream of whole numbers
+ * without storing all of them. It is a KLL sketch: the numbers are kept in levels, where each number
+ * kept at level h stands for 2^h of the numbers added. When the levels are full, a level is sorted and
+ * every other number in it is moved up to the next level, chosen from a random starting point.
+ * Sketches of separate streams can be merged into a sketch of both.
+ *
+ * With k = 200 a sketch keeps at most about 3k numbers (a few KB) however many are added, and a rank
+ * found with it is within about 1.7% of the number of values added of the true rank, with high
+ * probability.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class QuantileSketch
+{
+    public static final int DEFAULT_K = 200;
+    // The smallest capacity of a level.
+    private static final int MINIMUM_CAPACITY = 8;
+
+    private int k;
+    private long count;
+    // levels[h] holds sizes[h] numbers, each standing for 2^h numbers added.
+    private int[][] levels;
+    private int[] sizes;
+    private Random random;
+
+    /**
+     * Constructor for objects of class QuantileSketch, with the default accuracy.
+     */
+    public QuantileSketch()
+    {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Constructor for objects of class QuantileSketch
+     * @param k the capacity of the top level; larger values are more accurate but use more memory
+     */
+    public QuantileSketch(int k)
+    {
+        this.k = k;
+        levels = new int[][] { new int[k] };
+        sizes = new int[1];
+        // A fixed seed makes the estimates the same every time the data set is loaded.
+        random = new Random(k);
+    }
+
+    /**
+     * Adds a number to the sketch.
+     */
+    public void add(int value)
+    {
+        append(0, value);
+        count++;
+        compress();
+    }
+
+    /**
+     * Adds all of the numbers of another sketch, which is not changed, to this sketch.
+     */
+    public void merge(QuantileSketch other)
+    {
+        // The other sketch may have more levels, some of them empty, than this one.
+        grow(other.levels.length);
+        for(int level = 0; level < other.levels.length; level++) {
+            for(int i = 0; i < other.sizes[level]; i++)
+                append(level, other.levels[level][i]);
+        }
+        count += other.count;
+        compress();
+    }
+
+    /**
+     * Returns the number of numbers added to the sketch.
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Returns the estimated number of numbers added to the sketch that are less than value.
+     */
+    public long rank(int value)
+    {
+        long rank = 0;
+        for(int level = 0; level < levels.length; level++) {
+            for(int i = 0; i < sizes[level]; i++) {
+                if(levels[level][i] < value)
+                    rank += 1L << level;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the estimated quantile of all numbers added to the sketch, or -1 if none have been added.
+     * @param fraction the quantile, from 0 to 1, for example 0.5 for the median
+     */
+    public int getQuantile(double fraction)
+    {
+        if(count == 0)
+            return -1;
+        // The numbers kept in the sketch, sorted, each with the number of numbers it stands for.
+        int size = 0;
+        for(int level = 0; level < levels.length; level++)
+            size += sizes[level];
+        long[] items = new long[size];
+        int next = 0;
+        for(int level = 0; level < levels.length; level++) {
+            for(int i = 0; i < sizes[level]; i++)
+                items[next++] = ((long) levels[level][i] << 8) | level;
+        }
+        Arrays.sort(items);
+        long total = 0;
+        for(long item : items)
+            total += 1L << (item & 0xFF);
+        // The quantile is the first number whose weight takes the running total past the wanted rank.
+        double wanted = Math.min(fraction, 1.0) * total;
+        long seen = 0;
+        for(long item : items) {
+            seen += 1L << (item & 0xFF);
+            if(seen > wanted)
+                return (int) (item >> 8);
+        }
+        return (int) (items[items.length - 1] >> 8);
+    }
+
+    /**
+     * Adds a number to a level, making room for it if needed.
+     */
+    private void append(int level, int value)
+    {
+        grow(level + 1);
+        if(sizes[level] == levels[level].length)
+            levels[level] = Arrays.copyOf(levels[level], sizes[level] * 2);
+        levels[level][sizes[level]++] = value;
+    }
+
+    /**
+     * Adds empty levels until the sketch has at least the given number of levels.
+     */
+    private void grow(int levelCount)
+    {
+        if(levelCount <= levels.length)
+            return;
+        int old = levels.length;
+        levels = Arrays.copyOf(levels, levelCount);
+        sizes = Arrays.copyOf(sizes, levelCount);
+        for(int level = old; level < levelCount; level++)
+            levels[level] = new int[k];
+    }
+
+    /**
+     * Compacts full levels until the sketch holds no more numbers than its levels' capacities allow.
+     */
+    private void compress()
+    {
+        while(true) {
+            int size = 0, capacity = 0;
+            for(int level = 0; level < levels.length; level++) {
+                size += sizes[level];
+                capacity += capacity(level);
+            }
+            if(size <= capacity)
+                return;
+            int level = 0;
+            while(sizes[level] < capacity(level))
+                level++;
+            compact(level);
+        }
+    }
+
+    /**
+     * Moves every other number of a level, in sorted order, up to the next level. If the level holds an
+     * odd number of numbers, its largest number stays where it is.
+     */
+    private void compact(int level)
+    {
+        int[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        int pairs = size / 2;
+        int offset = random.nextBoolean() ? 1 : 0;
+        for(int i = 0; i < pairs; i++)
+            append(level + 1, items[2 * i + offset]);
+        items = levels[level];
+        if(size % 2 == 1)
+            items[0] = items[size - 1];
+        sizes[level] = size % 2;
+    }
+
+    /**
+     * Returns the capacity of a level. The top level holds k numbers, and each level below it two thirds
+     * as many as the level above.
+     */
+    private int capacity(int level)
+    {
+        int depth = levels.length - 1 - level;
+        return Math.max(MINIMUM_CAPACITY, (int) Math.ceil(k * Math.pow(2.0 / 3.0, depth)));
+    }
+}
@@ -0,0 +1,105 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The test class QuantileSketchTest.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class QuantileSketchTest
+{
+    /**
+     * Default constructor for test class QuantileSketchTest
+     */
+    public QuantileSketchTest()
+    {
+    }
+
+    @Test
+    public void TestQuantilesOfOneSketch()
+    {
+        int[] values = randomValues(1, 200000);
+        QuantileSketch sketch = new QuantileSketch();
+        for(int value : values)
+            sketch.add(value);
+        assertEquals(values.length, sketch.getCount());
+        assertAccurate(sketch, values);
+        assertEquals(-1, new QuantileSketch().getQuantile(0.5));
+    }
+
+    @Test
+    public void TestMergeSketchesWithDifferentLevels()
+    {
+        // Sketches of these sizes have from one level to several, and the compactions leave some of the
+        // levels in the middle empty. Each is merged into smaller and larger ones, in both directions.
+        int[] sizes = {100, 1000, 5000, 20000, 100000};
+        for(int small = 0; small < sizes.length; small++) {
+            for(int large = small; large < sizes.length; large++) {
+                int[] first = randomValues(small, sizes[small]);
+                int[] second = randomValues(sizes.length + large, sizes[large]);
+                int[] both = Arrays.copyOf(first, first.length + second.length);
+                System.arraycopy(second, 0, both, first.length, second.length);
+
+                QuantileSketch smallIntoLarge = sketchOf(second);
+                smallIntoLarge.merge(sketchOf(first));
+                assertEquals(both.length, smallIntoLarge.getCount());
+                assertAccurate(smallIntoLarge, both);
+
+                QuantileSketch largeIntoSmall = sketchOf(first);
+                largeIntoSmall.merge(sketchOf(second));
+                assertEquals(both.length, largeIntoSmall.getCount());
+                assertAccurate(largeIntoSmall, both);
+            }
+        }
+        // Merging into an empty sketch, which has a single level, copies every level of the other.
+        int[] values = randomValues(99, 100000);
+        QuantileSketch empty = new QuantileSketch();
+        empty.merge(sketchOf(values));
+        assertAccurate(empty, values);
+    }
+
+    /**
+     * Checks that the rank of each percentile the sketch gives is within 2% of the number of values of
+     * the percentile's true rank.
+     */
+    private static void assertAccurate(QuantileSketch sketch, int[] values)
+    {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for(int percent = 1; percent < 100; percent++) {
+            int estimate = sketch.getQuantile(percent / 100.0);
+            int rank = Arrays.binarySearch(sorted, estimate);
+            assertTrue(percent + "% of " + values.length, rank >= 0);
+            assertTrue(percent + "% of " + values.length, Math.abs(rank - percent / 100.0 * sorted.length) <= 0.02 * sorted.length + 1);
+        }
+    }
+
+    private static QuantileSketch sketchOf(int[] values)
+    {
+        QuantileSketch sketch = new QuantileSketch();
+        for(int value : values)
+            sketch.add(value);
+        return sketch;
+    }
+
+    /**
+     * Returns distinct values in a random order, so that every value has a single true rank.
+     */
+    private static int[] randomValues(long seed, int count)
+    {
+        Random random = new Random(seed);
+        int[] values = new int[count];
+        for(int i = 0; i < count; i++)
+            values[i] = i * 3;
+        for(int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+}
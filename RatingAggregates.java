@@ -0,0 +1,174 @@
+import java.util.Arrays;
+
+/**
+ * The RatingAggregates class keeps, for each property, the number of reviews, the sum of their ratings
+ * and how many reviews gave each rating from 1 to 5, so that the average rating of any property is
+ * found without reading its reviews. Reviews are added and removed in constant time.
+ * Property IDs are whole numbers, as in the data set, and are kept as longs in an open-addressing hash
+ * table of primitive arrays rather than as Strings in a HashMap. Reviews whose property ID is not a
+ * whole number written without leading zeros, or whose rating is not from 1 to 5, are not counted, so
+ * that two different IDs such as "7" and "007" are never counted as the same property.
+ * Every method locks the aggregates, so they can be read by one thread, such as the GUI, while reviews
+ * are added or removed by another.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class RatingAggregates
+{
+    public static final int HIGHEST_RATING = 5;
+    // Marks an empty slot. Property IDs are not negative.
+    private static final long EMPTY = -1;
+
+    private long[] keys;
+    private int[] counts;
+    private long[] sums;
+    // The number of reviews with each rating, HIGHEST_RATING entries per slot.
+    private int[] histograms;
+    private int size;
+
+    /**
+     * Constructor for objects of class RatingAggregates
+     */
+    public RatingAggregates()
+    {
+        allocate(64);
+    }
+
+    /**
+     * Adds a review with the given rating to the property's aggregates.
+     */
+    public synchronized void add(String propertyID, int rating)
+    {
+        long key = parseID(propertyID);
+        if(key < 0 || rating < 1 || rating > HIGHEST_RATING)
+            return;
+        if((size + 1) * 4 > keys.length * 3)
+            resize();
+        int slot = slot(key);
+        if(keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        counts[slot]++;
+        sums[slot] += rating;
+        histograms[slot * HIGHEST_RATING + rating - 1]++;
+    }
+
+    /**
+     * Removes a review with the given rating, which must have been added, from the property's aggregates.
+     */
+    public synchronized void remove(String propertyID, int rating)
+    {
+        long key = parseID(propertyID);
+        if(key < 0 || rating < 1 || rating > HIGHEST_RATING)
+            return;
+        int slot = slot(key);
+        if(keys[slot] == EMPTY)
+            return;
+        counts[slot]--;
+        sums[slot] -= rating;
+        histograms[slot * HIGHEST_RATING + rating - 1]--;
+    }
+
+    /**
+     * Returns the number of reviews of the property.
+     */
+    public synchronized int getCount(String propertyID)
+    {
+        int slot = find(propertyID);
+        return slot < 0 ? 0 : counts[slot];
+    }
+
+    /**
+     * Returns the average rating of the property, or 0 if it has no reviews.
+     */
+    public synchronized double getAverage(String propertyID)
+    {
+        int slot = find(propertyID);
+        return slot < 0 || counts[slot] == 0 ? 0 : (double) sums[slot] / counts[slot];
+    }
+
+    /**
+     * Returns the number of reviews of the property that gave each rating: element r - 1 is the number that
+     * gave rating r.
+     */
+    public synchronized int[] getHistogram(String propertyID)
+    {
+        int slot = find(propertyID);
+        if(slot < 0)
+            return new int[HIGHEST_RATING];
+        return Arrays.copyOfRange(histograms, slot * HIGHEST_RATING, (slot + 1) * HIGHEST_RATING);
+    }
+
+    /**
+     * Returns the slot of the property, or -1 if it has no slot.
+     */
+    private int find(String propertyID)
+    {
+        long key = parseID(propertyID);
+        if(key < 0)
+            return -1;
+        int slot = slot(key);
+        return keys[slot] == EMPTY ? -1 : slot;
+    }
+
+    /**
+     * Returns the slot holding the key, or the empty slot where it would be put.
+     */
+    private int slot(long key)
+    {
+        int mask = keys.length - 1;
+        int slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+        while(keys[slot] != EMPTY && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * Doubles the number of slots.
+     */
+    private void resize()
+    {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        long[] oldSums = sums;
+        int[] oldHistograms = histograms;
+        allocate(oldKeys.length * 2);
+        for(int old = 0; old < oldKeys.length; old++) {
+            if(oldKeys[old] == EMPTY)
+                continue;
+            int slot = slot(oldKeys[old]);
+            keys[slot] = oldKeys[old];
+            counts[slot] = oldCounts[old];
+            sums[slot] = oldSums[old];
+            System.arraycopy(oldHistograms, old * HIGHEST_RATING, histograms, slot * HIGHEST_RATING, HIGHEST_RATING);
+        }
+    }
+
+    private void allocate(int slots)
+    {
+        keys = new long[slots];
+        Arrays.fill(keys, EMPTY);
+        counts = new int[slots];
+        sums = new long[slots];
+        histograms = new int[slots * HIGHEST_RATING];
+    }
+
+    /**
+     * Returns the property ID as a number, or -1 if it is not a whole number without leading zeros.
+     */
+    private static long parseID(String propertyID)
+    {
+        if(propertyID.isEmpty() || propertyID.length() > 18 || (propertyID.length() > 1 && propertyID.charAt(0) == '0'))
+            return -1;
+        long key = 0;
+        for(int i = 0; i < propertyID.length(); i++) {
+            char c = propertyID.charAt(i);
+            if(c < '0' || c > '9')
+                return -1;
+            key = key * 10 + (c - '0');
+        }
+        return key;
+    }
+}
@@ -0,0 +1,79 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.util.Random;
+
+/**
+ * The test class RatingAggregatesTest.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class RatingAggregatesTest
+{
+    /**
+     * Default constructor for test class RatingAggregatesTest
+     */
+    public RatingAggregatesTest()
+    {
+    }
+
+    @Test
+    public void TestAddAndRemove()
+    {
+        RatingAggregates ratings = new RatingAggregates();
+        ratings.add("7", 5);
+        ratings.add("7", 2);
+        ratings.add("7", 5);
+        assertEquals(3, ratings.getCount("7"));
+        assertEquals(4.0, ratings.getAverage("7"), 1e-9);
+        assertArrayEquals(new int[] {0, 1, 0, 0, 2}, ratings.getHistogram("7"));
+        ratings.remove("7", 5);
+        assertEquals(2, ratings.getCount("7"));
+        assertEquals(3.5, ratings.getAverage("7"), 1e-9);
+        assertArrayEquals(new int[] {0, 1, 0, 0, 1}, ratings.getHistogram("7"));
+        assertEquals(0, ratings.getCount("8"));
+        assertEquals(0.0, ratings.getAverage("8"), 0);
+    }
+
+    @Test
+    public void TestInvalidReviewsAreNotCounted()
+    {
+        RatingAggregates ratings = new RatingAggregates();
+        ratings.add("7", 0);
+        ratings.add("7", 6);
+        ratings.add("abc", 3);
+        ratings.add("", 3);
+        assertEquals(0, ratings.getCount("7"));
+        assertEquals(0, ratings.getCount("abc"));
+        // "007" is a different ID from "7", so it is not counted as the same property.
+        ratings.add("7", 4);
+        ratings.add("007", 1);
+        assertEquals(1, ratings.getCount("7"));
+        assertEquals(0, ratings.getCount("007"));
+        assertEquals(4.0, ratings.getAverage("7"), 0);
+        ratings.add("0", 2);
+        assertEquals(1, ratings.getCount("0"));
+    }
+
+    @Test
+    public void TestManyProperties()
+    {
+        // Enough properties to make the table grow several times, checked against plain arrays.
+        RatingAggregates ratings = new RatingAggregates();
+        int[] counts = new int[5000];
+        long[] sums = new long[5000];
+        Random random = new Random(1);
+        for(int i = 0; i < 50000; i++) {
+            int property = random.nextInt(counts.length);
+            int rating = 1 + random.nextInt(5);
+            ratings.add(Integer.toString(property * 7919), rating);
+            counts[property]++;
+            sums[property] += rating;
+        }
+        for(int property = 0; property < counts.length; property++) {
+            String id = Integer.toString(property * 7919);
+            assertEquals(counts[property], ratings.getCount(id));
+            assertEquals(counts[property] == 0 ? 0 : (double) sums[property] / counts[property], ratings.getAverage(id), 1e-9);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ReviewAppender class appends reviews to a csv file in batches. Reviews are put on a queue and
+ * written by a single background thread through one FileChannel that stays open. The thread waits up to
+ * the flush interval after the first review of a batch for more reviews, then writes the whole batch
+ * with one write (a group commit) and, if requested, forces it to the disk before completing the
+ * futures of the batch's reviews. Closing the appender queues a marker behind the last review, so the
+ * thread writes every review queued before it and then stops; the thread is never interrupted, since
+ * interrupting a thread in a FileChannel operation closes the channel.
+ * Fields are quoted as in RFC 4180 when they hold a comma, a quote or a line break.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class ReviewAppender
+{
+    // The most reviews written in one batch.
+    private static final int MAXIMUM_BATCH = 4096;
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+    // Queued by close() after the last review, to tell the thread to stop.
+    private static final PendingReview CLOSE = new PendingReview(null);
+
+    private FileChannel channel;
+    private long flushIntervalMillis;
+    private boolean sync;
+    private LinkedBlockingQueue<PendingReview> queue;
+    private Thread writer;
+    private boolean closed;
+    private volatile int batchCount;
+
+    /**
+     * Constructor for objects of class ReviewAppender
+     * @param file the csv file to append to, which is created if it does not exist
+     * @param flushIntervalMillis how long to wait for more reviews before writing a batch; 0 writes the
+     *                            reviews waiting in the queue straight away
+     * @param sync whether each batch is forced to the disk before its futures are completed
+     */
+    public ReviewAppender(File file, long flushIntervalMillis, boolean sync) throws IOException
+    {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.sync = sync;
+        queue = new LinkedBlockingQueue<>();
+        writer = new Thread(this::writeBatches, "review-appender");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a review to be appended. The returned future completes when the review has been written,
+     * or completes exceptionally if it could not be.
+     */
+    public CompletableFuture<Void> append(String propertyID, String reviewerName, int rating, String review)
+    {
+        String line = escape(propertyID) + "," + escape(reviewerName) + "," + rating + "," + escape(review);
+        PendingReview pending = new PendingReview(line);
+        // Checking and queuing together, under the same lock as close(), means no review is queued after
+        // the marker that stops the thread.
+        synchronized(this) {
+            if(!closed) {
+                queue.add(pending);
+                return pending.future;
+            }
+        }
+        pending.future.completeExceptionally(new IOException("The review appender is closed"));
+        return pending.future;
+    }
+
+    /**
+     * Returns the number of batches written so far.
+     */
+    public int getBatchCount()
+    {
+        return batchCount;
+    }
+
+    /**
+     * Writes the reviews still in the queue and closes the file. Reviews appended afterwards fail.
+     */
+    public void close()
+    {
+        synchronized(this) {
+            if(!closed) {
+                closed = true;
+                queue.add(CLOSE);
+            }
+        }
+        try {
+            writer.join();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the field quoted as in RFC 4180 if it holds a comma, a quote or a line break, or unchanged otherwise.
+     */
+    public static String escape(String field)
+    {
+        if(field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0)
+            return field;
+        return "\"" + field.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Takes batches of reviews off the queue and writes them until the appender is closed.
+     */
+    private void writeBatches()
+    {
+        ArrayList<PendingReview> batch = new ArrayList<>();
+        boolean stopping = false;
+        while(!stopping) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while(batch.size() < MAXIMUM_BATCH && batch.get(batch.size() - 1) != CLOSE) {
+                    PendingReview next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if(next == null)
+                        break;
+                    batch.add(next);
+                    queue.drainTo(batch, MAXIMUM_BATCH - batch.size());
+                }
+            }
+            catch(InterruptedException e) {
+                // Nothing in this class interrupts the thread; the reviews taken so far are written below.
+            }
+            // The marker is the last thing ever queued, so it can only be the last review of a batch.
+            if(!batch.isEmpty() && batch.get(batch.size() - 1) == CLOSE) {
+                batch.remove(batch.size() - 1);
+                stopping = true;
+            }
+            if(!batch.isEmpty())
+                commit(batch);
+            batch.clear();
+        }
+        try {
+            channel.close();
+        }
+        catch(IOException e) {
+            System.err.println("IOException: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a batch of reviews with a single write and completes their futures.
+     */
+    private void commit(ArrayList<PendingReview> batch)
+    {
+        StringBuilder text = new StringBuilder();
+        // As before, each review starts a new line, since the file does not end with a line break.
+        for(PendingReview pending : batch)
+            text.append(LINE_SEPARATOR).append(pending.line);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+            while(buffer.hasRemaining())
+                channel.write(buffer);
+            if(sync)
+                channel.force(false);
+            batchCount++;
+            for(PendingReview pending : batch)
+                pending.future.complete(null);
+        }
+        catch(IOException e) {
+            for(PendingReview pending : batch)
+                pending.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * A review waiting to be written, and the future completed when it has been.
+     */
+    private static class PendingReview
+    {
+        private String line;
+        private CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingReview(String line)
+        {
+            this.line = line;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import com.opencsv.CSVReader;
+
+/**
+ * The test class ReviewAppenderTest.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class ReviewAppenderTest
+{
+    private File file;
+
+    /**
+     * Default constructor for test class ReviewAppenderTest
+     */
+    public ReviewAppenderTest()
+    {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() throws IOException
+    {
+        file = File.createTempFile("reviews", ".csv");
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown()
+    {
+        file.delete();
+    }
+
+    @Test
+    public void TestCloseWritesQueuedReviews() throws Exception
+    {
+        // The long flush interval keeps the reviews in the queue until the appender is closed.
+        ReviewAppender appender = new ReviewAppender(file, 10000, true);
+        ArrayList<CompletableFuture<Void>> written = new ArrayList<>();
+        for(int i = 0; i < 20000; i++)
+            written.add(appender.append(Integer.toString(i % 100), "Alex", 1 + i % 5, "Review " + i));
+        appender.close();
+        for(CompletableFuture<Void> future : written)
+            future.get();
+        assertEquals(20000, readLines().size());
+        try {
+            appender.append("1", "Alex", 3, "Too late").get();
+            fail("Appended after close");
+        }
+        catch(ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void TestReviewsAreWrittenInBatches() throws Exception
+    {
+        ReviewAppender appender = new ReviewAppender(file, 200, false);
+        ArrayList<CompletableFuture<Void>> written = new ArrayList<>();
+        for(int i = 0; i < 1000; i++)
+            written.add(appender.append("1", "Alex", 3, "Review " + i));
+        CompletableFuture.allOf(written.toArray(new CompletableFuture<?>[0])).get();
+        assertTrue(appender.getBatchCount() <= 2);
+        appender.close();
+        ArrayList<String[]> lines = readLines();
+        assertEquals(1000, lines.size());
+        for(int i = 0; i < 1000; i++)
+            assertEquals("Review " + i, lines.get(i)[3]);
+    }
+
+    @Test
+    public void TestEscape() throws Exception
+    {
+        assertEquals("plain", ReviewAppender.escape("plain"));
+        assertEquals("\"a, b\"", ReviewAppender.escape("a, b"));
+        assertEquals("\"say \"\"hi\"\"\"", ReviewAppender.escape("say \"hi\""));
+        assertEquals("\"one\ntwo\"", ReviewAppender.escape("one\ntwo"));
+
+        String comment = "Clean, quiet, \"cosy\".\nWould stay again.";
+        ReviewAppender appender = new ReviewAppender(file, 0, false);
+        appender.append("7", "Mihnea, Andrei", 5, comment).get();
+        appender.close();
+        ArrayList<String[]> lines = readLines();
+        assertEquals(1, lines.size());
+        assertEquals("Mihnea, Andrei", lines.get(0)[1]);
+        assertEquals(comment, lines.get(0)[3]);
+    }
+
+    /**
+     * Returns the reviews in the file, each as its fields.
+     */
+    private ArrayList<String[]> readLines() throws IOException
+    {
+        ArrayList<String[]> lines = new ArrayList<>();
+        try(CSVReader reader = new CSVReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String[] line;
+            while((line = reader.readNext()) != null) {
+                // The file starts empty, so the first review's line break leaves a blank line.
+                if(line.length == 4)
+                    lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -6,20 +6,132 @@ import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 import com.opencsv.CSVReader;
 import java.net.URISyntaxException;
 
 /**
- * The ReviewReaderWriter class reads and writes to the reviews.csv file
+ * The ReviewReaderWriter class reads and writes to the reviews.csv file.
+ * The reviews are read from the file once, the first time they are needed, and kept in memory grouped by
+ * property ID, so the reviews of a property are found without reading the file again. Reviews that are
+ * written are appended to the file in batches by a ReviewAppender, and added to the reviews in memory once
+ * they have been written. The number of reviews and average rating of each property are kept up to date
+ * in a RatingAggregates as reviews are read and written.
  *
  * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
  * @version 31.03.2018
  */
 public class ReviewReaderWriter
 {
-    public ArrayList<Review> read(String propertyID)
+    // All reviews in the order in which they are in the file, and the reviews of each property ID.
+    private ArrayList<Review> allReviews;
+    private HashMap<String, ArrayList<Review>> reviewsByProperty;
+    private RatingAggregates ratings;
+    private ReviewAppender appender;
+    // How long the appender waits to gather reviews into one write, and whether it forces each write to the disk.
+    private long flushIntervalMillis = 10;
+    private boolean sync = true;
+    
+    /**
+     * Constructor for objects of class ReviewReaderWriter
+     */
+    public ReviewReaderWriter()
+    {
+    }
+    
+    /**
+     * Constructor for objects of class ReviewReaderWriter
+     * @param flushIntervalMillis how long reviews are gathered before they are written together
+     * @param sync whether each write is forced to the disk before it is reported as complete
+     */
+    public ReviewReaderWriter(long flushIntervalMillis, boolean sync)
+    {
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.sync = sync;
+    }
+    
+    /**
+     * Returns the reviews of the property with the given ID, or all reviews if the ID is "".
+     */
+    public synchronized ArrayList<Review> read(String propertyID)
     {
-        ArrayList<Review> reviews = new ArrayList<Review>();
+        if(allReviews == null)
+            loadReviews();
+        if(propertyID.equals(""))
+            return new ArrayList<Review>(allReviews);
+        ArrayList<Review> reviews = reviewsByProperty.get(propertyID);
+        return reviews == null ? new ArrayList<Review>() : new ArrayList<Review>(reviews);
+    }
+    
+    /**
+     * Returns the rating aggregates of every property, reading the reviews if they have not been read yet.
+     * The aggregates are updated as reviews are written, and lock themselves, so they can be read from any thread.
+     */
+    public synchronized RatingAggregates getRatingAggregates()
+    {
+        if(allReviews == null)
+            loadReviews();
+        return ratings;
+    }
+    
+    /**
+     * Writes to reviews.csv. The review is written in the background; the returned future completes when
+     * it has been written, or completes exceptionally if it could not be.
+     */
+    public CompletableFuture<Void> write(String propertyID, String reviewerName, int rating, String review)
+    {
+        // The review is added to the reviews in memory straight away, and removed again if it cannot be written.
+        Review added = new Review(propertyID, reviewerName, rating, review);
+        CompletableFuture<Void> written;
+        try {
+            synchronized(this) {
+                if(allReviews == null)
+                    loadReviews();
+                addReview(added);
+                written = getAppender().append(propertyID, reviewerName, rating, review);
+            }
+        }
+        catch(IOException ioe) {
+            System.err.println("IOException: " + ioe.getMessage());
+            written = new CompletableFuture<>();
+            written.completeExceptionally(ioe);
+        }
+        written.whenComplete((result, error) -> {
+            if(error != null)
+                removeReview(added);
+        });
+        return written;
+    }
+    
+    /**
+     * Writes the reviews that are still waiting to be written, and closes reviews.csv.
+     */
+    public synchronized void close()
+    {
+        if(appender != null)
+            appender.close();
+        appender = null;
+    }
+    
+    /**
+     * Returns the appender that writes to reviews.csv, opening it if this is the first review written.
+     */
+    private synchronized ReviewAppender getAppender() throws IOException
+    {
+        if(appender == null)
+            appender = new ReviewAppender(new File("reviews.csv"), flushIntervalMillis, sync);
+        return appender;
+    }
+    
+    /**
+     * Reads every review in reviews.csv into memory.
+     */
+    private void loadReviews()
+    {
+        allReviews = new ArrayList<Review>();
+        reviewsByProperty = new HashMap<String, ArrayList<Review>>();
+        ratings = new RatingAggregates();
         try{
             URL url = getClass().getResource("reviews.csv");
             CSVReader reader = new CSVReader(new FileReader(new File(url.toURI()).getAbsolutePath()));
@@ -29,50 +141,34 @@ public class ReviewReaderWriter
             while ((line = reader.readNext()) != null) {
                 String id = line[0];
                 String author = line[1];
-                int rating = convertInt(line[2]);
+                int rating = FieldParser.parseInt(line[2]);
                 String comment = line[3];
 
-                Review review = new Review(id, author, rating, comment);
-                
-                if(propertyID.equals("")) {
-                    reviews.add(review);
-                } else if(id.equals(propertyID)) {
-                    reviews.add(review);
-                }
+                addReview(new Review(id, author, rating, comment));
             }
         } catch(IOException | URISyntaxException e){
             System.out.println("Failure! Something went wrong");
             e.printStackTrace();
         }
-        return reviews;
     }
     
     /**
-     * Writes to reviews.csv
+     * Adds a review to the reviews in memory.
      */
-    public void write(String propertyID, String reviewerName, int rating, String review)
+    private void addReview(Review review)
     {
-        try {
-            String filename= "reviews.csv";
-            FileWriter fileWriter = new FileWriter(filename,true);
-            fileWriter.write(System.getProperty("line.separator"));
-            fileWriter.write(propertyID + "," + reviewerName + ","+ rating + "," + review);
-            fileWriter.close();
-        }
-        catch(IOException ioe) {
-            System.err.println("IOException: " + ioe.getMessage());
-        }
+        allReviews.add(review);
+        reviewsByProperty.computeIfAbsent(review.getId(), id -> new ArrayList<Review>()).add(review);
+        ratings.add(review.getId(), review.getRating());
     }
     
     /**
-     * @param intString the string to be converted to Integer type
-     * @return the Integer value of the string, or -1 if the string is 
-     * either empty or just whitespace
+     * Removes a review that could not be written from the reviews in memory.
      */
-    private Integer convertInt(String intString){
-        if(intString != null && !intString.trim().equals("")){
-            return Integer.parseInt(intString);
-        }
-        return -1;
+    private synchronized void removeReview(Review review)
+    {
+        allReviews.remove(review);
+        reviewsByProperty.get(review.getId()).remove(review);
+        ratings.remove(review.getId(), review.getRating());
     }
-}
\ No newline at end of file
+}
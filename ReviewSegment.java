@@ -0,0 +1,336 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * The ReviewSegment class is an immutable file of reviews, sorted by property ID, used by ReviewStore.
+ * Reviews of the same property are kept in the order in which they were written.
+ * The end of the file holds the smallest and largest property IDs in it, a BloomFilter of its property
+ * IDs, and the position of every 64th review, so that the reviews of a property are found by reading
+ * only from the nearest indexed review onwards, and files that cannot hold the property are not read.
+ * The file is memory-mapped, so it can be read by several threads at once. A single mapping can be at
+ * most 2 GB, so a segment that would be larger than MAXIMUM_SIZE is not written; ReviewStore keeps its
+ * segments well below that. Positions in the file are stored as longs.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class ReviewSegment
+{
+    private static final int MAGIC = 0x52534547;
+    // Every INDEX_INTERVAL-th review's property ID and position are kept in the index.
+    private static final int INDEX_INTERVAL = 64;
+    // The largest file that can be memory-mapped as one buffer.
+    public static final long MAXIMUM_SIZE = Integer.MAX_VALUE;
+
+    private File file;
+    // The first and last sequence numbers of the logs whose reviews the segment holds.
+    private long firstSequence, lastSequence;
+    private ByteBuffer reviews;
+    private long size;
+    private int count;
+    private String smallestKey, largestKey;
+    private BloomFilter keys;
+    private String[] indexKeys;
+    private long[] indexPositions;
+
+    /**
+     * Opens an existing segment file.
+     */
+    public ReviewSegment(File file) throws IOException
+    {
+        this.file = file;
+        MappedByteBuffer buffer;
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            size = channel.size();
+            if(size > MAXIMUM_SIZE)
+                throw new IOException("Review segment too large to map: " + file);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        int footer = buffer.limit() - 12;
+        if(footer < 0 || buffer.getInt(footer + 8) != MAGIC)
+            throw new IOException("Not a review segment: " + file);
+        ByteBuffer in = buffer.duplicate();
+        in.position((int) buffer.getLong(footer));
+        firstSequence = in.getLong();
+        lastSequence = in.getLong();
+        count = in.getInt();
+        smallestKey = readString(in);
+        largestKey = readString(in);
+        long[] bits = new long[in.getInt()];
+        for(int i = 0; i < bits.length; i++)
+            bits[i] = in.getLong();
+        keys = new BloomFilter(bits);
+        indexKeys = new String[in.getInt()];
+        indexPositions = new long[indexKeys.length];
+        for(int i = 0; i < indexKeys.length; i++) {
+            indexKeys[i] = readString(in);
+            indexPositions[i] = in.getLong();
+        }
+        reviews = buffer.duplicate();
+        reviews.limit((int) buffer.getLong(footer));
+    }
+
+    /**
+     * Writes a new segment file holding the given reviews, and opens it. The file is written under another
+     * name and then renamed, so that it either exists complete or not at all. If the file would be larger
+     * than MAXIMUM_SIZE, an IOException is thrown and nothing is written.
+     * @param reviews the reviews, sorted by property ID
+     * @param count the number of reviews, or an upper limit on it
+     */
+    public static ReviewSegment write(File file, long firstSequence, long lastSequence, Iterator<Review> reviews, int count)
+        throws IOException
+    {
+        File temporary = new File(file.getPath() + ".tmp");
+        BloomFilter keys = new BloomFilter(count);
+        ArrayList<String> indexKeys = new ArrayList<>();
+        ArrayList<Long> indexPositions = new ArrayList<>();
+        String smallestKey = "", largestKey = "";
+        int written = 0;
+        // DataOutputStream.size() stops counting at Integer.MAX_VALUE, so the position is counted here.
+        long position = 0;
+        try(FileOutputStream fileStream = new FileOutputStream(temporary);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileStream))) {
+            while(reviews.hasNext()) {
+                Review review = reviews.next();
+                if(written % INDEX_INTERVAL == 0) {
+                    indexKeys.add(review.getId());
+                    indexPositions.add(position);
+                }
+                if(written == 0)
+                    smallestKey = review.getId();
+                largestKey = review.getId();
+                keys.add(review.getId());
+                position += writeString(out, review.getId());
+                position += writeString(out, review.getAuthor());
+                out.writeInt(review.getRating());
+                position += 4;
+                position += writeString(out, review.getComment());
+                written++;
+                if(position > MAXIMUM_SIZE)
+                    throw new IOException("Review segment too large to map: " + file);
+            }
+            long footer = position;
+            out.writeLong(firstSequence);
+            out.writeLong(lastSequence);
+            out.writeInt(written);
+            writeString(out, smallestKey);
+            writeString(out, largestKey);
+            out.writeInt(keys.getBits().length);
+            for(long bits : keys.getBits())
+                out.writeLong(bits);
+            out.writeInt(indexKeys.size());
+            for(int i = 0; i < indexKeys.size(); i++) {
+                writeString(out, indexKeys.get(i));
+                out.writeLong(indexPositions.get(i));
+            }
+            out.writeLong(footer);
+            out.writeInt(MAGIC);
+            out.flush();
+            if(fileStream.getChannel().size() > MAXIMUM_SIZE)
+                throw new IOException("Review segment too large to map: " + file);
+            fileStream.getFD().sync();
+        }
+        catch(IOException e) {
+            temporary.delete();
+            throw e;
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return new ReviewSegment(file);
+    }
+
+    /**
+     * Writes a new segment file holding the reviews of all of the given segments, and opens it. Reviews of
+     * the same property are kept in the order of the segments, then in their order within each segment.
+     * @param segments segments in the order in which their reviews were written
+     */
+    public static ReviewSegment merge(File file, ArrayList<ReviewSegment> segments) throws IOException
+    {
+        int count = 0;
+        for(ReviewSegment segment : segments)
+            count += segment.count;
+        return write(file, segments.get(0).firstSequence, segments.get(segments.size() - 1).lastSequence,
+                     new MergeIterator(segments), count);
+    }
+
+    /**
+     * Returns the reviews of the property with the given ID, in the order in which they were written.
+     */
+    public ArrayList<Review> read(String propertyID)
+    {
+        ArrayList<Review> found = new ArrayList<>();
+        if(count == 0 || propertyID.compareTo(smallestKey) < 0 || propertyID.compareTo(largestKey) > 0
+           || !keys.mightContain(propertyID))
+            return found;
+        // The reviews of the property start after the last indexed review with a smaller property ID.
+        int low = 0, high = indexKeys.length;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(indexKeys[middle].compareTo(propertyID) < 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        ByteBuffer in = reviews.duplicate();
+        in.position(low == 0 ? 0 : (int) indexPositions[low - 1]);
+        while(in.hasRemaining()) {
+            Review review = readReview(in);
+            int comparison = review.getId().compareTo(propertyID);
+            if(comparison > 0)
+                break;
+            if(comparison == 0)
+                found.add(review);
+        }
+        return found;
+    }
+
+    /**
+     * Returns an iterator over every review in the segment, in the order in which they are stored.
+     */
+    public Iterator<Review> iterator()
+    {
+        ByteBuffer in = reviews.duplicate();
+        in.position(0);
+        return new Iterator<Review>() {
+            public boolean hasNext()
+            {
+                return in.hasRemaining();
+            }
+
+            public Review next()
+            {
+                if(!in.hasRemaining())
+                    throw new NoSuchElementException();
+                return readReview(in);
+            }
+        };
+    }
+
+    /**
+     * Deletes the segment's file. The segment can still be read by anyone already reading it.
+     */
+    public void delete()
+    {
+        if(!file.delete())
+            System.err.println("Could not delete " + file);
+    }
+
+    public File getFile()
+    {
+        return file;
+    }
+
+    public long getFirstSequence()
+    {
+        return firstSequence;
+    }
+
+    public long getLastSequence()
+    {
+        return lastSequence;
+    }
+
+    public int getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Returns the size of the segment's file in bytes.
+     */
+    public long getSize()
+    {
+        return size;
+    }
+
+    private static Review readReview(ByteBuffer in)
+    {
+        String id = readString(in);
+        String author = readString(in);
+        int rating = in.getInt();
+        String comment = readString(in);
+        return new Review(id, author, rating, comment);
+    }
+
+    private static String readString(ByteBuffer in)
+    {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a string as its length followed by its UTF-8 bytes, and returns the number of bytes written.
+     */
+    private static int writeString(DataOutputStream out, String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        return 4 + bytes.length;
+    }
+
+    /**
+     * Merges the reviews of several segments into one sequence sorted by property ID. Reviews with the same
+     * property ID are taken from the earlier segment first.
+     */
+    private static class MergeIterator implements Iterator<Review>
+    {
+        // The next review of each segment that has one left, ordered by property ID and then segment.
+        private PriorityQueue<Head> heads = new PriorityQueue<>((first, second) -> {
+            int comparison = first.review.getId().compareTo(second.review.getId());
+            return comparison != 0 ? comparison : Integer.compare(first.segment, second.segment);
+        });
+        private ArrayList<Iterator<Review>> iterators = new ArrayList<>();
+
+        MergeIterator(ArrayList<ReviewSegment> segments)
+        {
+            for(int i = 0; i < segments.size(); i++) {
+                iterators.add(segments.get(i).iterator());
+                if(iterators.get(i).hasNext())
+                    heads.add(new Head(iterators.get(i).next(), i));
+            }
+        }
+
+        public boolean hasNext()
+        {
+            return !heads.isEmpty();
+        }
+
+        public Review next()
+        {
+            Head head = heads.remove();
+            if(iterators.get(head.segment).hasNext())
+                heads.add(new Head(iterators.get(head.segment).next(), head.segment));
+            return head.review;
+        }
+    }
+
+    /**
+     * The next review of one of the segments being merged.
+     */
+    private static class Head
+    {
+        private Review review;
+        private int segment;
+
+        Head(Review review, int segment)
+        {
+            this.review = review;
+            this.segment = segment;
+        }
+    }
+}
@@ -0,0 +1,454 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ReviewStore class stores reviews in a directory as a log-structured store, for review histories too
+ * large to read from a single csv file.
+ * New reviews are appended to a log file and kept in memory, grouped by property ID. When enough reviews
+ * have been added, a new log is started and, in the background, the reviews of the old log are written to
+ * a ReviewSegment file sorted by property ID and the old log is deleted.
+ * Segments are compacted in tiers: the tier of a segment is the number of logs it holds, and whenever
+ * there are as many neighbouring segments of the same tier as the compaction threshold, holding logs with
+ * no gap between them, the background thread merges them into one segment of the next tier. A log whose
+ * segment could not be written leaves such a gap, so that it is never taken to be covered by a merge. Each review is therefore rewritten only about
+ * log(number of logs) times, rather than on every compaction, and a read only has to look in a few
+ * segments of each tier. Segments are not merged beyond the maximum segment size, and each segment is
+ * skipped unless its range of property IDs and its BloomFilter say that it might hold the property.
+ * Files are named after sequence numbers: log-N.dat holds the reviews added while N was the current
+ * sequence number, and segment-F-L.dat holds the reviews of logs F to L. When the store is opened, logs
+ * and segments that are covered by other segments, left behind by a crash, are deleted, and the segments
+ * of the remaining older logs are written again.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class ReviewStore
+{
+    public static final int DEFAULT_LOG_LIMIT = 50000;
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 8;
+    public static final long DEFAULT_MAXIMUM_SEGMENT_SIZE = 1L << 30;
+
+    private File directory;
+    private int logLimit;
+    private int compactionThreshold;
+    private long maximumSegmentSize;
+    // The reviews of the current log, and the reviews of older logs whose segments are still being written.
+    private HashMap<String, ArrayList<Review>> recentReviews;
+    private int recentCount;
+    private ArrayList<FrozenLog> frozenLogs;
+    private long sequence;
+    private DataOutputStream log;
+    // The segments, oldest first. The list is replaced, never changed, so it can be read without locking.
+    private volatile List<ReviewSegment> segments;
+    private ExecutorService background;
+
+    /**
+     * Opens the store in the given directory, creating it if it does not exist, with the default limits.
+     */
+    public ReviewStore(File directory) throws IOException
+    {
+        this(directory, DEFAULT_LOG_LIMIT, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Opens the store in the given directory, creating it if it does not exist.
+     * @param logLimit the number of reviews in a log before a new log is started
+     * @param compactionThreshold the number of segments of the same tier that are merged into one
+     */
+    public ReviewStore(File directory, int logLimit, int compactionThreshold) throws IOException
+    {
+        this(directory, logLimit, compactionThreshold, DEFAULT_MAXIMUM_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens the store in the given directory, creating it if it does not exist.
+     * @param logLimit the number of reviews in a log before a new log is started
+     * @param compactionThreshold the number of segments of the same tier that are merged into one
+     * @param maximumSegmentSize the size in bytes beyond which segments are not merged; at most
+     *                           ReviewSegment.MAXIMUM_SIZE
+     */
+    public ReviewStore(File directory, int logLimit, int compactionThreshold, long maximumSegmentSize) throws IOException
+    {
+        if(logLimit < 1 || compactionThreshold < 2)
+            throw new IllegalArgumentException("Log limit must be at least 1 and compaction threshold at least 2");
+        if(maximumSegmentSize < 1 || maximumSegmentSize > ReviewSegment.MAXIMUM_SIZE)
+            throw new IllegalArgumentException("Maximum segment size must be from 1 to " + ReviewSegment.MAXIMUM_SIZE);
+        this.directory = directory;
+        this.logLimit = logLimit;
+        this.compactionThreshold = compactionThreshold;
+        this.maximumSegmentSize = maximumSegmentSize;
+        recentReviews = new HashMap<>();
+        frozenLogs = new ArrayList<>();
+        background = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "review-store-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if(!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Could not create " + directory);
+        recover();
+    }
+
+    /**
+     * Adds a review to the store.
+     */
+    public synchronized void append(Review review) throws IOException
+    {
+        if(log == null)
+            throw new IOException("The review store is closed");
+        writeRecord(log, review);
+        log.flush();
+        addRecent(recentReviews, review);
+        recentCount++;
+        if(recentCount >= logLimit)
+            startNewLog();
+    }
+
+    /**
+     * Returns the reviews of the property with the given ID, in the order in which they were added.
+     */
+    public ArrayList<Review> read(String propertyID)
+    {
+        List<ReviewSegment> current;
+        ArrayList<FrozenLog> frozen;
+        ArrayList<Review> recent;
+        synchronized(this) {
+            current = segments;
+            frozen = new ArrayList<>(frozenLogs);
+            recent = new ArrayList<>(recentReviews.getOrDefault(propertyID, new ArrayList<>()));
+        }
+        // A log whose segment could not be written may be older than some segments, so the segments and
+        // frozen logs are read in the order of their sequence numbers.
+        ArrayList<Review> reviews = new ArrayList<>();
+        int next = 0;
+        for(ReviewSegment segment : current) {
+            while(next < frozen.size() && frozen.get(next).sequence < segment.getFirstSequence())
+                reviews.addAll(frozen.get(next++).reviews.getOrDefault(propertyID, new ArrayList<>()));
+            reviews.addAll(segment.read(propertyID));
+        }
+        while(next < frozen.size())
+            reviews.addAll(frozen.get(next++).reviews.getOrDefault(propertyID, new ArrayList<>()));
+        reviews.addAll(recent);
+        return reviews;
+    }
+
+    /**
+     * Returns the number of segment files in the store.
+     */
+    public int getSegmentCount()
+    {
+        return segments.size();
+    }
+
+    /**
+     * Waits for the segments being written and merged in the background, and closes the store. The reviews
+     * of the current log are read from it again when the store is next opened.
+     */
+    public void close() throws IOException
+    {
+        synchronized(this) {
+            if(log == null)
+                return;
+            log.close();
+            log = null;
+        }
+        background.shutdown();
+        try {
+            background.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Opens the segments and logs in the directory, deleting those covered by other segments, and reads the
+     * reviews of the remaining logs back into memory.
+     */
+    private void recover() throws IOException
+    {
+        ArrayList<ReviewSegment> opened = new ArrayList<>();
+        TreeMap<Long, File> logs = new TreeMap<>();
+        File[] files = directory.listFiles();
+        for(File file : files == null ? new File[0] : files) {
+            String name = file.getName();
+            if(name.endsWith(".tmp")) {
+                file.delete();
+            } else if(name.startsWith("segment-") && name.endsWith(".dat")) {
+                opened.add(new ReviewSegment(file));
+            } else if(name.startsWith("log-") && name.endsWith(".dat")) {
+                logs.put(Long.parseLong(name.substring(4, name.length() - 4)), file);
+            }
+        }
+        // A segment covered by a larger one is an input of a merge that finished before a crash.
+        Collections.sort(opened, (first, second) -> first.getFirstSequence() != second.getFirstSequence()
+            ? Long.compare(first.getFirstSequence(), second.getFirstSequence())
+            : Long.compare(second.getLastSequence(), first.getLastSequence()));
+        ArrayList<ReviewSegment> kept = new ArrayList<>();
+        long covered = -1;
+        for(ReviewSegment segment : opened) {
+            if(segment.getLastSequence() <= covered) {
+                segment.delete();
+            } else {
+                kept.add(segment);
+                covered = segment.getLastSequence();
+            }
+        }
+        segments = Collections.unmodifiableList(kept);
+        sequence = covered + 1;
+        for(long logSequence : logs.keySet()) {
+            File file = logs.get(logSequence);
+            // A log older than the newest segment but in none of them is one whose segment was never written.
+            if(findSegment(kept, logSequence) != null) {
+                file.delete();
+                continue;
+            }
+            HashMap<String, ArrayList<Review>> reviews = new HashMap<>();
+            int count = readLog(file, reviews);
+            if(logSequence == logs.lastKey()) {
+                recentReviews = reviews;
+                recentCount = count;
+                sequence = logSequence;
+            } else {
+                FrozenLog frozen = new FrozenLog(logSequence, reviews, count);
+                frozenLogs.add(frozen);
+                background.execute(() -> writeSegment(frozen));
+            }
+        }
+        log = openLog(sequence);
+        if(recentCount >= logLimit)
+            startNewLog();
+    }
+
+    /**
+     * Starts a new log, and writes the reviews of the current one to a segment in the background.
+     */
+    private void startNewLog() throws IOException
+    {
+        log.close();
+        FrozenLog frozen = new FrozenLog(sequence, recentReviews, recentCount);
+        frozenLogs.add(frozen);
+        recentReviews = new HashMap<>();
+        recentCount = 0;
+        sequence++;
+        log = openLog(sequence);
+        background.execute(() -> writeSegment(frozen));
+    }
+
+    /**
+     * Writes the reviews of a log that is no longer current to a segment, then deletes the log and compacts
+     * the segments. Runs on the background thread.
+     */
+    private void writeSegment(FrozenLog frozen)
+    {
+        try {
+            TreeMap<String, ArrayList<Review>> sorted = new TreeMap<>(frozen.reviews);
+            ArrayList<Review> reviews = new ArrayList<>(frozen.count);
+            for(ArrayList<Review> propertyReviews : sorted.values())
+                reviews.addAll(propertyReviews);
+            ReviewSegment segment = ReviewSegment.write(segmentFile(frozen.sequence, frozen.sequence),
+                                                        frozen.sequence, frozen.sequence, reviews.iterator(), reviews.size());
+            synchronized(this) {
+                // The segment of a log written again after a failure goes before the newer segments.
+                ArrayList<ReviewSegment> updated = new ArrayList<>(segments);
+                int position = updated.size();
+                while(position > 0 && updated.get(position - 1).getFirstSequence() > frozen.sequence)
+                    position--;
+                updated.add(position, segment);
+                segments = Collections.unmodifiableList(updated);
+                frozenLogs.remove(frozen);
+            }
+            logFile(frozen.sequence).delete();
+            compact();
+        }
+        catch(IOException e) {
+            // The log is kept, so its reviews are read again when the store is next opened.
+            System.out.println("Failure! Something went wrong");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Merges neighbouring segments of the same tier, as many as the compaction threshold at a time, until
+     * there are none left to merge. Runs on the background thread, which is the only thread that adds or
+     * removes segments, so no segment is added while a merge is running.
+     */
+    private void compact() throws IOException
+    {
+        int start;
+        while((start = findCompaction(segments)) >= 0) {
+            ArrayList<ReviewSegment> inputs = new ArrayList<>(segments.subList(start, start + compactionThreshold));
+            ReviewSegment merged = ReviewSegment.merge(segmentFile(inputs.get(0).getFirstSequence(),
+                                                                   inputs.get(inputs.size() - 1).getLastSequence()), inputs);
+            synchronized(this) {
+                ArrayList<ReviewSegment> updated = new ArrayList<>(segments.subList(0, start));
+                updated.add(merged);
+                updated.addAll(segments.subList(start + compactionThreshold, segments.size()));
+                segments = Collections.unmodifiableList(updated);
+            }
+            // Readers that already took the old list can still read the old segments, which stay mapped.
+            for(ReviewSegment segment : inputs)
+                segment.delete();
+        }
+    }
+
+    /**
+     * Returns the position of the first run of as many neighbouring segments of the same tier as the
+     * compaction threshold, each starting with the log after the last log of the one before, that together
+     * are no larger than the maximum segment size, or -1 if there is none.
+     */
+    private int findCompaction(List<ReviewSegment> current)
+    {
+        for(int start = 0; start + compactionThreshold <= current.size(); start++) {
+            long tier = getTier(current.get(start));
+            long size = 0;
+            int end = start;
+            while(end < start + compactionThreshold && getTier(current.get(end)) == tier
+                  && (end == start || current.get(end).getFirstSequence() == current.get(end - 1).getLastSequence() + 1)) {
+                size += current.get(end).getSize();
+                end++;
+            }
+            if(end == start + compactionThreshold && size <= maximumSegmentSize)
+                return start;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the segment that holds the reviews of the log with the given sequence number, or null if
+     * there is none.
+     */
+    private static ReviewSegment findSegment(List<ReviewSegment> current, long logSequence)
+    {
+        for(ReviewSegment segment : current) {
+            if(segment.getFirstSequence() <= logSequence && segment.getLastSequence() >= logSequence)
+                return segment;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the tier of a segment: the number of logs whose reviews it holds.
+     */
+    private static long getTier(ReviewSegment segment)
+    {
+        return segment.getLastSequence() - segment.getFirstSequence() + 1;
+    }
+
+    private File segmentFile(long firstSequence, long lastSequence)
+    {
+        return new File(directory, "segment-" + firstSequence + "-" + lastSequence + ".dat");
+    }
+
+    private File logFile(long sequence)
+    {
+        return new File(directory, "log-" + sequence + ".dat");
+    }
+
+    private DataOutputStream openLog(long sequence) throws IOException
+    {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile(sequence), true)));
+    }
+
+    /**
+     * Reads the reviews of a log into the given map and returns how many there were. A review cut short by
+     * a crash, at the end of the log, is removed from the file.
+     */
+    private static int readLog(File file, HashMap<String, ArrayList<Review>> reviews) throws IOException
+    {
+        int count = 0;
+        long complete = 0;
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while(true) {
+                int length = in.readInt();
+                byte[] record = new byte[length];
+                in.readFully(record);
+                DataInputStream fields = new DataInputStream(new ByteArrayInputStream(record));
+                addRecent(reviews, new Review(readString(fields), readString(fields), fields.readInt(), readString(fields)));
+                count++;
+                complete += 4 + length;
+            }
+        }
+        catch(EOFException e) {
+            // The end of the log.
+        }
+        if(complete < file.length()) {
+            try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(complete);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes a review to a log as its length in bytes followed by its fields, so that a review cut short
+     * by a crash can be recognised.
+     */
+    private static void writeRecord(DataOutputStream out, Review review) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream fields = new DataOutputStream(bytes);
+        writeString(fields, review.getId());
+        writeString(fields, review.getAuthor());
+        fields.writeInt(review.getRating());
+        writeString(fields, review.getComment());
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+    }
+
+    private static String readString(DataInputStream in) throws IOException
+    {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void addRecent(HashMap<String, ArrayList<Review>> reviews, Review review)
+    {
+        reviews.computeIfAbsent(review.getId(), id -> new ArrayList<>()).add(review);
+    }
+
+    /**
+     * The reviews of a log that is no longer current, whose segment is being written.
+     */
+    private static class FrozenLog
+    {
+        private long sequence;
+        private HashMap<String, ArrayList<Review>> reviews;
+        private int count;
+
+        FrozenLog(long sequence, HashMap<String, ArrayList<Review>> reviews, int count)
+        {
+            this.sequence = sequence;
+            this.reviews = reviews;
+            this.count = count;
+        }
+    }
+}
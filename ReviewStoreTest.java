@@ -0,0 +1,214 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * The test class ReviewStoreTest.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class ReviewStoreTest
+{
+    private static final int PROPERTIES = 50;
+
+    private File directory;
+    // The comments of the reviews appended to each property, in order.
+    private HashMap<String, ArrayList<String>> expected;
+
+    /**
+     * Default constructor for test class ReviewStoreTest
+     */
+    public ReviewStoreTest()
+    {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory("reviews").toFile();
+        expected = new HashMap<>();
+    }
+
+    /**
+     * Tears down the test fixture.
+     *
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown()
+    {
+        File[] files = directory.listFiles();
+        for(File file : files == null ? new File[0] : files)
+            file.delete();
+        directory.delete();
+    }
+
+    @Test
+    public void TestReopenAfterWrites() throws IOException
+    {
+        ReviewStore store = new ReviewStore(directory, 10, 4);
+        append(store, 0, 555);
+        assertReviews(store);
+        store.close();
+        store = new ReviewStore(directory, 10, 4);
+        assertReviews(store);
+        append(store, 555, 100);
+        store.close();
+        store = new ReviewStore(directory, 10, 4);
+        assertReviews(store);
+        store.close();
+    }
+
+    @Test
+    public void TestIgnoresPartialLogAndTemporarySegment() throws IOException
+    {
+        ReviewStore store = new ReviewStore(directory, 10, 4);
+        append(store, 0, 105);
+        store.close();
+        // A segment whose writing was cut short, and a review cut short at the end of the current log.
+        File temporary = new File(directory, "segment-10-10.dat.tmp");
+        Files.write(temporary.toPath(), new byte[] {1, 2, 3});
+        try(FileOutputStream log = new FileOutputStream(new File(directory, "log-10.dat"), true)) {
+            log.write(new byte[] {0, 0, 0, 40, 0, 0});
+        }
+        store = new ReviewStore(directory, 10, 4);
+        assertFalse(temporary.exists());
+        assertReviews(store);
+        append(store, 105, 20);
+        store.close();
+        store = new ReviewStore(directory, 10, 4);
+        assertReviews(store);
+        store.close();
+    }
+
+    @Test
+    public void TestCompactionKeepsEveryReview() throws IOException
+    {
+        ReviewStore store = new ReviewStore(directory, 10, 4);
+        append(store, 0, 1000);
+        store.close();
+        store = new ReviewStore(directory, 10, 4);
+        // 100 logs are compacted in tiers of 1, 4, 16 and 64 logs: 100 = 64 + 2 * 16 + 4.
+        assertEquals(4, store.getSegmentCount());
+        assertReviews(store);
+        store.close();
+    }
+
+    @Test
+    public void TestSegmentsAreNotMergedBeyondMaximumSize() throws IOException
+    {
+        ReviewStore store = new ReviewStore(directory, 10, 4, 1);
+        append(store, 0, 200);
+        store.close();
+        store = new ReviewStore(directory, 10, 4, 1);
+        assertEquals(20, store.getSegmentCount());
+        assertReviews(store);
+        store.close();
+    }
+
+    @Test
+    public void TestFailedSegmentWriteKeepsLog() throws IOException
+    {
+        ReviewStore store = new ReviewStore(directory, 1, 2);
+        // A directory in place of the temporary file makes writing the segment of log 1 fail, so the
+        // segments of logs 0, 2 and 3 are written with a gap between them.
+        File blocked = new File(directory, "segment-1-1.dat.tmp");
+        assertTrue(blocked.mkdir());
+        append(store, 0, 5);
+        assertReviews(store);
+        store.close();
+        assertTrue(new File(directory, "log-1.dat").exists());
+        assertFalse(new File(directory, "segment-0-2.dat").exists());
+        assertFalse(new File(directory, "segment-0-3.dat").exists());
+
+        store = new ReviewStore(directory, 1, 2);
+        assertReviews(store);
+        append(store, 5, 3);
+        store.close();
+        store = new ReviewStore(directory, 1, 2);
+        assertReviews(store);
+        assertFalse(new File(directory, "log-1.dat").exists());
+        store.close();
+    }
+
+    @Test
+    public void TestBloomFilterNegativeSkipsSegment() throws IOException
+    {
+        ArrayList<Review> reviews = new ArrayList<>();
+        BloomFilter keys = new BloomFilter(500);
+        for(int i = 0; i < 1000; i += 2) {
+            reviews.add(new Review("p" + i, "Alex", 3, "Review " + i));
+            keys.add("p" + i);
+        }
+        reviews.sort((first, second) -> first.getId().compareTo(second.getId()));
+        File file = new File(directory, "segment-0-0.dat");
+        ReviewSegment.write(file, 0, 0, reviews.iterator(), reviews.size());
+        String absent = null;
+        for(int i = 1; absent == null; i += 2) {
+            if(!keys.mightContain("p" + i))
+                absent = "p" + i;
+        }
+
+        // Overwriting the reviews, but not the footer, makes reading any of them fail.
+        try(RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(raw.length() - 12);
+            byte[] garbage = new byte[(int) raw.readLong()];
+            Arrays.fill(garbage, (byte) 0xFF);
+            raw.seek(0);
+            raw.write(garbage);
+        }
+        ReviewSegment segment = new ReviewSegment(file);
+        assertEquals(0, segment.read(absent).size());
+        try {
+            segment.read("p500");
+            fail("The corrupted reviews were not read");
+        }
+        catch(RuntimeException e) {
+            // The segment was read, as the property might be in it.
+        }
+    }
+
+    /**
+     * Appends reviews numbered from first to the store, to properties chosen at random, and remembers them.
+     */
+    private void append(ReviewStore store, int first, int count) throws IOException
+    {
+        Random random = new Random(first);
+        for(int i = first; i < first + count; i++) {
+            String property = Integer.toString(random.nextInt(PROPERTIES));
+            store.append(new Review(property, "Alex", 1 + i % 5, "Review " + i));
+            expected.computeIfAbsent(property, id -> new ArrayList<>()).add("Review " + i);
+        }
+    }
+
+    /**
+     * Checks that the store holds exactly the reviews appended, in order.
+     */
+    private void assertReviews(ReviewStore store)
+    {
+        for(int property = 0; property < PROPERTIES; property++) {
+            String id = Integer.toString(property);
+            ArrayList<String> comments = new ArrayList<>();
+            for(Review review : store.read(id))
+                comments.add(review.getComment());
+            assertEquals(expected.getOrDefault(id, new ArrayList<>()), comments);
+        }
+        assertEquals(0, store.read("not a property").size());
+    }
+}
@@ -0,0 +1,293 @@
+import java.util.Arrays;
+
+/**
+ * The SpatialIndex class is a KD-tree over the latitudes and longitudes of the rows of a ListingTable,
+ * used to find the listings in a rectangle, within a distance of a point, or nearest to a point.
+ * The tree is stored in arrays, without a node object per listing: the middle of each range of
+ * positions is a node, and the two halves of the range are its subtrees, split alternately by east-west
+ * and north-south position.
+ * Distances are measured on a flat projection of the earth around the average latitude of the listings,
+ * which is accurate to well within one percent over an area the size of a city.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class SpatialIndex
+{
+    private static final double EARTH_RADIUS_METRES = 6371000;
+
+    // The rows of the table in tree order, and their positions in metres east and north.
+    private int[] rows;
+    private double[] x, y;
+    // The number of metres east per degree of longitude, and north per degree of latitude.
+    private double metresPerLongitude, metresPerLatitude;
+
+    /**
+     * Constructor for objects of class SpatialIndex
+     */
+    public SpatialIndex(ListingTable table)
+    {
+        int size = table.size();
+        double latitudes = 0;
+        for(int row = 0; row < size; row++)
+            latitudes += table.getLatitude(row);
+        double averageLatitude = size == 0 ? 0 : latitudes / size;
+        metresPerLatitude = Math.toRadians(1) * EARTH_RADIUS_METRES;
+        metresPerLongitude = metresPerLatitude * Math.cos(Math.toRadians(averageLatitude));
+        rows = new int[size];
+        x = new double[size];
+        y = new double[size];
+        for(int row = 0; row < size; row++) {
+            rows[row] = row;
+            x[row] = table.getLongitude(row) * metresPerLongitude;
+            y[row] = table.getLatitude(row) * metresPerLatitude;
+        }
+        build(0, size, true);
+    }
+
+    /**
+     * Returns the rows of the listings within the given latitudes and longitudes (inclusive), in ascending order.
+     */
+    public int[] boundingBox(double minimumLatitude, double minimumLongitude, double maximumLatitude, double maximumLongitude)
+    {
+        RowList found = new RowList();
+        boundingBox(0, rows.length, true, minimumLongitude * metresPerLongitude, minimumLatitude * metresPerLatitude,
+                    maximumLongitude * metresPerLongitude, maximumLatitude * metresPerLatitude, found);
+        return found.toSortedArray();
+    }
+
+    /**
+     * Returns the rows of the listings within the given distance, in metres, of a point, in ascending order.
+     */
+    public int[] withinRadius(double latitude, double longitude, double metres)
+    {
+        RowList found = new RowList();
+        withinRadius(0, rows.length, true, longitude * metresPerLongitude, latitude * metresPerLatitude, metres * metres, found);
+        return found.toSortedArray();
+    }
+
+    /**
+     * Returns the rows of the k listings nearest to a point, nearest first.
+     */
+    public int[] nearest(double latitude, double longitude, int k)
+    {
+        return nearest(latitude, longitude, k, -1);
+    }
+
+    /**
+     * Returns the rows of the k listings nearest to a point, nearest first, leaving out the given row.
+     * @param excludedRow a row to leave out, usually the listing at the point, or -1 to leave out none
+     */
+    public int[] nearest(double latitude, double longitude, int k, int excludedRow)
+    {
+        // The best rows found so far, as a max-heap on their squared distances.
+        int[] heapRows = new int[Math.max(0, k)];
+        double[] heapDistances = new double[heapRows.length];
+        int count = nearest(0, rows.length, true, longitude * metresPerLongitude, latitude * metresPerLatitude,
+                            excludedRow, heapRows, heapDistances, 0);
+        // Taking the farthest row off the heap each time leaves the rows sorted, nearest first.
+        int[] nearest = new int[count];
+        for(int i = count - 1; i >= 0; i--) {
+            nearest[i] = heapRows[0];
+            heapRows[0] = heapRows[i];
+            heapDistances[0] = heapDistances[i];
+            siftDown(heapRows, heapDistances, i);
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns the distance, in metres, between two points.
+     */
+    public double distance(double latitude1, double longitude1, double latitude2, double longitude2)
+    {
+        double dx = (longitude1 - longitude2) * metresPerLongitude;
+        double dy = (latitude1 - latitude2) * metresPerLatitude;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Arranges the positions from start (inclusive) to end (exclusive) into a tree.
+     * @param byX whether the root of this range splits by x or by y
+     */
+    private void build(int start, int end, boolean byX)
+    {
+        if(end - start <= 1)
+            return;
+        int middle = (start + end) >>> 1;
+        select(start, end, middle, byX ? x : y);
+        build(start, middle, !byX);
+        build(middle + 1, end, !byX);
+    }
+
+    /**
+     * Reorders the positions from start to end so that the one at the given position has the value it would
+     * have if they were sorted by the given coordinate, with no smaller values after it and no larger values
+     * before it.
+     */
+    private void select(int start, int end, int position, double[] coordinates)
+    {
+        int low = start, high = end - 1;
+        while(low < high) {
+            double pivot = coordinates[(low + high) >>> 1];
+            int i = low, j = high;
+            while(i <= j) {
+                while(coordinates[i] < pivot)
+                    i++;
+                while(coordinates[j] > pivot)
+                    j--;
+                if(i <= j)
+                    swap(i++, j--);
+            }
+            if(position <= j)
+                high = j;
+            else if(position >= i)
+                low = i;
+            else
+                return;
+        }
+    }
+
+    /**
+     * Swaps two positions of the tree.
+     */
+    private void swap(int i, int j)
+    {
+        int row = rows[i];
+        rows[i] = rows[j];
+        rows[j] = row;
+        double value = x[i];
+        x[i] = x[j];
+        x[j] = value;
+        value = y[i];
+        y[i] = y[j];
+        y[j] = value;
+    }
+
+    private void boundingBox(int start, int end, boolean byX, double minX, double minY, double maxX, double maxY, RowList found)
+    {
+        if(start >= end)
+            return;
+        int middle = (start + end) >>> 1;
+        if(x[middle] >= minX && x[middle] <= maxX && y[middle] >= minY && y[middle] <= maxY)
+            found.add(rows[middle]);
+        double split = byX ? x[middle] : y[middle];
+        if((byX ? minX : minY) <= split)
+            boundingBox(start, middle, !byX, minX, minY, maxX, maxY, found);
+        if((byX ? maxX : maxY) >= split)
+            boundingBox(middle + 1, end, !byX, minX, minY, maxX, maxY, found);
+    }
+
+    private void withinRadius(int start, int end, boolean byX, double pointX, double pointY, double radiusSquared, RowList found)
+    {
+        if(start >= end)
+            return;
+        int middle = (start + end) >>> 1;
+        double dx = x[middle] - pointX, dy = y[middle] - pointY;
+        if(dx * dx + dy * dy <= radiusSquared)
+            found.add(rows[middle]);
+        double offset = byX ? dx : dy;
+        // The point is on the side of the split where offset is negative if offset is positive, and vice versa.
+        if(offset >= 0 || offset * offset <= radiusSquared)
+            withinRadius(start, middle, !byX, pointX, pointY, radiusSquared, found);
+        if(offset <= 0 || offset * offset <= radiusSquared)
+            withinRadius(middle + 1, end, !byX, pointX, pointY, radiusSquared, found);
+    }
+
+    /**
+     * Adds the rows from start to end that are nearer to the point than the farthest row on the heap,
+     * and returns the new number of rows on the heap.
+     */
+    private int nearest(int start, int end, boolean byX, double pointX, double pointY, int excludedRow,
+                        int[] heapRows, double[] heapDistances, int count)
+    {
+        if(start >= end || heapRows.length == 0)
+            return count;
+        int middle = (start + end) >>> 1;
+        double dx = x[middle] - pointX, dy = y[middle] - pointY;
+        double distance = dx * dx + dy * dy;
+        if(rows[middle] != excludedRow) {
+            if(count < heapRows.length) {
+                heapRows[count] = rows[middle];
+                heapDistances[count] = distance;
+                siftUp(heapRows, heapDistances, count++);
+            } else if(distance < heapDistances[0]) {
+                heapRows[0] = rows[middle];
+                heapDistances[0] = distance;
+                siftDown(heapRows, heapDistances, count);
+            }
+        }
+        double offset = byX ? dx : dy;
+        // The side of the split holding the point is searched first, and the other side only if it could
+        // hold a nearer row.
+        boolean pointBefore = offset > 0;
+        count = pointBefore ? nearest(start, middle, !byX, pointX, pointY, excludedRow, heapRows, heapDistances, count)
+                            : nearest(middle + 1, end, !byX, pointX, pointY, excludedRow, heapRows, heapDistances, count);
+        if(count < heapRows.length || offset * offset < heapDistances[0]) {
+            count = pointBefore ? nearest(middle + 1, end, !byX, pointX, pointY, excludedRow, heapRows, heapDistances, count)
+                                : nearest(start, middle, !byX, pointX, pointY, excludedRow, heapRows, heapDistances, count);
+        }
+        return count;
+    }
+
+    private static void siftUp(int[] heapRows, double[] heapDistances, int i)
+    {
+        while(i > 0) {
+            int parent = (i - 1) / 2;
+            if(heapDistances[parent] >= heapDistances[i])
+                return;
+            swap(heapRows, heapDistances, i, parent);
+            i = parent;
+        }
+    }
+
+    /**
+     * Moves the top of a heap of the given size down to its place.
+     */
+    private static void siftDown(int[] heapRows, double[] heapDistances, int size)
+    {
+        int i = 0;
+        while(2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if(child + 1 < size && heapDistances[child + 1] > heapDistances[child])
+                child++;
+            if(heapDistances[i] >= heapDistances[child])
+                return;
+            swap(heapRows, heapDistances, i, child);
+            i = child;
+        }
+    }
+
+    private static void swap(int[] heapRows, double[] heapDistances, int i, int j)
+    {
+        int row = heapRows[i];
+        heapRows[i] = heapRows[j];
+        heapRows[j] = row;
+        double distance = heapDistances[i];
+        heapDistances[i] = heapDistances[j];
+        heapDistances[j] = distance;
+    }
+
+    /**
+     * A growing list of rows.
+     */
+    private static class RowList
+    {
+        private int[] rows = new int[16];
+        private int size;
+
+        void add(int row)
+        {
+            if(size == rows.length)
+                rows = Arrays.copyOf(rows, size * 2);
+            rows[size++] = row;
+        }
+
+        int[] toSortedArray()
+        {
+            int[] sorted = Arrays.copyOf(rows, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
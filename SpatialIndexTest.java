@@ -0,0 +1,118 @@
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * The test class SpatialIndexTest. Each query is checked against a scan of every row of the table.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class SpatialIndexTest
+{
+    private static final int QUERIES = 300;
+
+    private ListingTable table;
+    private SpatialIndex index;
+    private Random random;
+
+    /**
+     * Default constructor for test class SpatialIndexTest
+     */
+    public SpatialIndexTest()
+    {
+    }
+
+    /**
+     * Sets up the test fixture.
+     *
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp()
+    {
+        table = new ListingTable();
+        random = new Random(1);
+        for(int row = 0; row < 3000; row++)
+            table.add(Integer.toString(row), "Flat", "h", "Host", "Barnet", randomLatitude(), randomLongitude(),
+                      "Private room", 50, 1, 0, "", -1, 1, 365);
+        index = new SpatialIndex(table);
+    }
+
+    @Test
+    public void TestBoundingBox()
+    {
+        for(int query = 0; query < QUERIES; query++) {
+            double latitude1 = randomLatitude(), latitude2 = randomLatitude();
+            double longitude1 = randomLongitude(), longitude2 = randomLongitude();
+            double minimumLatitude = Math.min(latitude1, latitude2), maximumLatitude = Math.max(latitude1, latitude2);
+            double minimumLongitude = Math.min(longitude1, longitude2), maximumLongitude = Math.max(longitude1, longitude2);
+            ArrayList<Integer> expected = new ArrayList<>();
+            for(int row = 0; row < table.size(); row++) {
+                if(table.getLatitude(row) >= minimumLatitude && table.getLatitude(row) <= maximumLatitude
+                   && table.getLongitude(row) >= minimumLongitude && table.getLongitude(row) <= maximumLongitude)
+                    expected.add(row);
+            }
+            assertEquals(expected, toList(index.boundingBox(minimumLatitude, minimumLongitude, maximumLatitude, maximumLongitude)));
+        }
+    }
+
+    @Test
+    public void TestWithinRadius()
+    {
+        for(int query = 0; query < QUERIES; query++) {
+            double latitude = randomLatitude(), longitude = randomLongitude();
+            double metres = random.nextDouble() * 3000;
+            ArrayList<Integer> expected = new ArrayList<>();
+            for(int row = 0; row < table.size(); row++) {
+                if(index.distance(latitude, longitude, table.getLatitude(row), table.getLongitude(row)) <= metres)
+                    expected.add(row);
+            }
+            assertEquals(expected, toList(index.withinRadius(latitude, longitude, metres)));
+        }
+    }
+
+    @Test
+    public void TestNearest()
+    {
+        for(int query = 0; query < QUERIES; query++) {
+            double latitude = randomLatitude(), longitude = randomLongitude();
+            int k = 1 + random.nextInt(10);
+            int excluded = query % 2 == 0 ? -1 : random.nextInt(table.size());
+            Integer[] all = new Integer[table.size()];
+            for(int row = 0; row < all.length; row++)
+                all[row] = row;
+            Arrays.sort(all, Comparator.comparingDouble(row -> index.distance(latitude, longitude, table.getLatitude(row), table.getLongitude(row))));
+            ArrayList<Integer> expected = new ArrayList<>();
+            for(int i = 0; expected.size() < k; i++) {
+                if(all[i] != excluded)
+                    expected.add(all[i]);
+            }
+            assertEquals(expected, toList(index.nearest(latitude, longitude, k, excluded)));
+        }
+        assertEquals(table.size(), index.nearest(51.5, -0.1, table.size() + 10).length);
+        assertEquals(0, index.nearest(51.5, -0.1, 0).length);
+    }
+
+    private double randomLatitude()
+    {
+        return 51.3 + random.nextDouble() * 0.4;
+    }
+
+    private double randomLongitude()
+    {
+        return -0.5 + random.nextDouble() * 0.8;
+    }
+
+    private static ArrayList<Integer> toList(int[] rows)
+    {
+        ArrayList<Integer> list = new ArrayList<>();
+        for(int row : rows)
+            list.add(row);
+        return list;
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The StringDictionary class gives each distinct String a small int code. Columns with only a few
+ * distinct values, such as neighbourhoods and room types, store these codes instead of a String per
+ * row, and can then be compared by code instead of with String.equals.
+ * Codes are given out in order, starting at 0, as new Strings are added.
+ *
+ * @author Ziad Al-Dara, Alexander Bass, William Cohen, Mihnea-Andrei Radulescu, Bhanu Guntupalli
+ * @version 31.03.2018
+ */
+public class StringDictionary
+{
+    private ArrayList<String> values;
+    private HashMap<String, Integer> codes;
+
+    /**
+     * Constructor for objects of class StringDictionary
+     */
+    public StringDictionary()
+    {
+        values = new ArrayList<>();
+        codes = new HashMap<>();
+    }
+
+    /**
+     * Returns the code of the given String, giving it a new code if it has not been added before.
+     */
+    public int encode(String value)
+    {
+        Integer code = codes.get(value);
+        if(code == null) {
+            code = values.size();
+            values.add(value);
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    /**
+     * Returns the code of the given String, or -1 if it is not in the dictionary.
+     */
+    public int codeOf(String value)
+    {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Returns the String with the given code.
+     */
+    public String get(int code)
+    {
+        return values.get(code);
+    }
+
+    /**
+     * Returns the number of distinct Strings in the dictionary.
+     */
+    public int size()
+    {
+        return values.size();
+    }
+}